@@ -0,0 +1,73 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.AttemptBatchWriter;
+import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import com.example.vietnamesepuzzle.service.AttemptStatistics;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.PuzzleMetrics;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Services wired without Spring or a database, so the benchmarks measure the
+ * search and evaluation code only.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static PuzzleSolveService puzzleSolveService() {
+        return puzzleSolveService(false);
+    }
+
+    // With metrics enabled, meters are recorded in an in-memory registry
+    static PuzzleSolveService puzzleSolveService(boolean metricsEnabled) {
+        AttemptRepository repository = noOpRepository();
+        return new PuzzleSolveService(
+                repository,
+                new AttemptUtils(),
+                new NoOpBatchWriter(),
+                PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE),
+                new PuzzleMetrics(new SimpleMeterRegistry(), metricsEnabled),
+                new AttemptStatistics(repository));
+    }
+
+    // Every repository call does nothing and returns null (or a default primitive)
+    private static AttemptRepository noOpRepository() {
+        return (AttemptRepository) Proxy.newProxyInstance(
+                AttemptRepository.class.getClassLoader(),
+                new Class<?>[]{AttemptRepository.class},
+                (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == long.class) {
+                        return 0L;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    return null;
+                });
+    }
+
+    // Drops the attempts, so the persistence cost is left out
+    private static final class NoOpBatchWriter extends AttemptBatchWriter {
+
+        NoOpBatchWriter() {
+            super(500);
+        }
+
+        @Override
+        public int insertAll(List<Attempt> attempts) {
+            return attempts.size();
+        }
+    }
+}
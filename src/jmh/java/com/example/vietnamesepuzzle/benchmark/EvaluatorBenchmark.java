@@ -0,0 +1,76 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.equation.EquationEvaluator;
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one equation evaluation: the scaled integer evaluator used by the services,
+ * against the generic rational program evaluator and the original (inexact) double formula.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluatorBenchmark {
+
+    // A solution and a non-solution, so both outcomes are exercised
+    private static final int[][] INPUTS = {
+            {1, 7, 4, 3, 6, 5, 8, 2, 9},
+            {1, 2, 3, 4, 5, 6, 7, 8, 9}
+    };
+
+    private PuzzleSolveService puzzleSolveService;
+    private EquationEvaluator scaledEvaluator;
+    private EquationEvaluator programEvaluator;
+    private List<Integer> valuesList;
+    private int[] values;
+
+    @Param({"0", "1"})
+    public int input;
+
+    @Setup
+    public void setUp() {
+        puzzleSolveService = BenchmarkFixtures.puzzleSolveService();
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        scaledEvaluator = equation.newEvaluator();
+        programEvaluator = equation.newProgramEvaluator();
+        values = INPUTS[input].clone();
+        valuesList = Arrays.stream(values).boxed().toList();
+    }
+
+    @Benchmark
+    public boolean compiledArray() {
+        return puzzleSolveService.evaluateExpression(values);
+    }
+
+    @Benchmark
+    public boolean compiledList() {
+        return puzzleSolveService.evaluateExpression(valuesList);
+    }
+
+    @Benchmark
+    public boolean doubleFormula() {
+        int[] v = values;
+        double result = v[0] + 13 * ((double) v[1] / v[2]) + v[3] + v[4]
+                + 12 * v[5] - v[6] - 11 + ((double) v[7] * v[8]) / v[6] - 10;
+        return Math.abs(result - 66.0) < 0.000001;
+    }
+
+    @Benchmark
+    public boolean scaledEvaluator() {
+        return scaledEvaluator.isSatisfiedBy(values);
+    }
+
+    @Benchmark
+    public boolean programEvaluator() {
+        return programEvaluator.isSatisfiedBy(values);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.SolutionIndex;
+import com.example.vietnamesepuzzle.service.SolutionSnapshot;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partial-assignment queries on the {@link SolutionIndex}: a full answer (count, the nine
+ * domains and a page of completions) and a bare completion count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HintBenchmark {
+
+    private SolutionIndex solutionIndex;
+    private int[] assignment;
+
+    // No letter assigned, then one, then two
+    @Param({"", "A=4", "A=4,F=6"})
+    public String given;
+
+    @Setup
+    public void setUp() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        ParallelSolveService parallelSolveService = new ParallelSolveService(new AttemptUtils(), equation, 1, 0);
+        VerdictIndex verdictIndex = new VerdictIndex(parallelSolveService, BenchmarkFixtures.puzzleSolveService(),
+                new SolutionSnapshot(equation, ""), false, Long.MAX_VALUE);
+        verdictIndex.build();
+        parallelSolveService.shutdown();
+        solutionIndex = new SolutionIndex(verdictIndex);
+        solutionIndex.build();
+
+        Map<String, String> letters = new HashMap<>();
+        for (String pair : given.split(",")) {
+            if (!pair.isEmpty()) {
+                letters.put(pair.substring(0, 1), pair.substring(2));
+            }
+        }
+        assignment = SolutionIndex.parseAssignment(letters);
+    }
+
+    @Benchmark
+    public Map<String, Object> query() {
+        return solutionIndex.query(assignment, 0, 20);
+    }
+
+    @Benchmark
+    public int countCompletions() {
+        return solutionIndex.countCompletions(assignment);
+    }
+}
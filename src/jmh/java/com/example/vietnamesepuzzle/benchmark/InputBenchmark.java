@@ -0,0 +1,77 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.AttemptValidation;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request input handling: validation and conversion of an attempt input.
+ * {@code validateConvertEvaluate} is the boxed pipeline (validate, then a List of digits, then
+ * evaluate); {@code decodeAndEvaluate} and {@code decodeRank} are the single-pass decoder feeding
+ * the evaluator (reactive stack) or the verdict index (servlet stack).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputBenchmark {
+
+    private final AttemptValidation attemptValidation = new AttemptValidation();
+    private final AttemptUtils attemptUtils = new AttemptUtils();
+    private final PuzzleSolveService puzzleSolveService = BenchmarkFixtures.puzzleSolveService();
+    private final int[] digits = new int[9];
+
+    @Param({"174365829", "123456788"})
+    public String attemptInput;
+
+    @Benchmark
+    public void validateAttemptInput(Blackhole blackhole) {
+        try {
+            attemptValidation.validateAttemptInput(attemptInput);
+            blackhole.consume(true);
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> convertStringToIntegerList() {
+        return attemptUtils.convertStringToIntegerList(attemptInput);
+    }
+
+    @Benchmark
+    public boolean validateConvertEvaluate() {
+        try {
+            attemptValidation.validateAttemptInput(attemptInput);
+            return puzzleSolveService.evaluateExpression(attemptUtils.convertStringToIntegerList(attemptInput));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean decodeAndEvaluate() {
+        try {
+            attemptValidation.decodeAttemptInput(attemptInput, digits);
+            return puzzleSolveService.evaluateExpression(digits);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public int decodeRank() {
+        try {
+            return attemptValidation.decodeAttemptInput(attemptInput, null);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
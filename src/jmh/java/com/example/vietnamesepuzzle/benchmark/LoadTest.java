@@ -0,0 +1,313 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.VietnamesePuzzleApplication;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load test of {@code POST /api/attempts} and {@code GET /api/attempts/{id}},
+ * with request handling on platform threads, on virtual threads and on the reactive (WebFlux/R2DBC) stack.
+ * <p>
+ * Each mode runs in a forked JVM, so that neither inherits the other's JIT state: it starts the
+ * application on a random port (fresh in-memory database), then {@code concurrency} client
+ * threads send requests back to back: a warmup, then a measured run per endpoint. POSTs create distinct attempts; GETs read random ones of those.
+ * "POST duplicates" sends each input {@code repeats} times in a row from different threads, so
+ * concurrent requests race to create the same attempt: every one must succeed and get the same id.
+ * Prints throughput and latency percentiles per mode and endpoint, then the JVM's thread count
+ * and heap after GC with the connections still open (the client side is the same in every mode).
+ * <p>
+ * Options, as {@code key=value} arguments (defaults in brackets):
+ * {@code modes} [platform,virtual,reactive], {@code concurrency} [200], {@code warmup} [10] and
+ * {@code duration} [15] seconds, {@code repeats} [50]. The virtual mode needs Java 21.
+ */
+public final class LoadTest {
+
+    private static final int JAVA_VERSION = Runtime.version().feature();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual,reactive").split(","));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "15")));
+        int repeats = Integer.parseInt(options.getOrDefault("repeats", "50"));
+
+        if (options.containsKey("fork")) {
+            run(options.get("fork"), concurrency, warmup, duration, repeats);
+            return;
+        }
+        System.out.printf("Java %d, %d CPUs, %d client threads, %d s warmup, %d s per endpoint%n",
+                JAVA_VERSION, Runtime.getRuntime().availableProcessors(), concurrency,
+                warmup.toSeconds(), duration.toSeconds());
+        System.out.printf("%-9s %-24s %9s %8s %10s %9s %9s %9s%n",
+                "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (String mode : modes) {
+            if (!List.of("platform", "virtual", "reactive").contains(mode)) {
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+            }
+            if (mode.equals("virtual") && JAVA_VERSION < 21) {
+                System.out.printf("%-9s skipped: needs Java 21, running on Java %d%n", mode, JAVA_VERSION);
+                continue;
+            }
+            if (mode.equals("reactive")
+                    && !ClassUtils.isPresent("org.springframework.web.reactive.DispatcherHandler", null)) {
+                System.out.printf("%-9s skipped: needs the reactive Maven profile%n", mode);
+                continue;
+            }
+            fork(mode, concurrency, warmup, duration, repeats);
+        }
+    }
+
+    // Runs one mode in a child JVM with the same classpath, printing to this one's output.
+    private static void fork(String mode, int concurrency, Duration warmup, Duration duration, int repeats)
+            throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                LoadTest.class.getName(), "fork=" + mode, "concurrency=" + concurrency,
+                "warmup=" + warmup.toSeconds(), "duration=" + duration.toSeconds(), "repeats=" + repeats)
+                .inheritIO()
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("The " + mode + " run failed with exit code " + process.exitValue());
+        }
+    }
+
+    private static void run(String mode, int concurrency, Duration warmup, Duration duration, int repeats)
+            throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VietnamesePuzzleApplication.class)
+                .run("--server.port=0",
+                        "--spring.profiles.active=" + (mode.equals("reactive") ? "reactive" : "default"),
+                        "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                        "--server.tomcat.threads.max=" + Math.max(200, concurrency),
+                        "--puzzle.snapshot.path=",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Client client = new Client(port);
+
+            // Ranks not yet used by a POST; the GETs read the ids the POSTs returned
+            AtomicInteger nextRank = new AtomicInteger();
+            Endpoint post = () -> client.post(nextRank.getAndIncrement() % PermutationRank.PERMUTATION_COUNT);
+            Endpoint get = () -> client.get(client.randomCreatedId());
+            // The same input repeats times in a row, counting down from the last rank
+            AtomicInteger duplicateRequests = new AtomicInteger();
+            Endpoint duplicate = () -> client.postDuplicate(PermutationRank.PERMUTATION_COUNT - 1
+                    - (duplicateRequests.getAndIncrement() / repeats) % (PermutationRank.PERMUTATION_COUNT / 2));
+
+            measure(post, concurrency, warmup);
+            measure(get, concurrency, warmup);
+            measure(duplicate, concurrency, warmup);
+            measure(post, concurrency, duration).print(mode, "POST /api/attempts");
+            measure(get, concurrency, duration).print(mode, "GET /api/attempts/{id}");
+            measure(duplicate, concurrency, duration).print(mode, "POST duplicates");
+            printMemory(mode);
+        }
+    }
+
+    private static Result measure(Endpoint endpoint, int concurrency, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    while (System.nanoTime() < end) {
+                        long requestStart = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = endpoint.call();
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        recorder.record(System.nanoTime() - requestStart, ok);
+                    }
+                    return recorder;
+                }));
+            }
+            Recorder total = new Recorder();
+            for (Future<Recorder> future : futures) {
+                total.addAll(future.get());
+            }
+            return new Result(total, System.nanoTime() - start);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void printMemory(String mode) {
+        System.gc();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%-9s %d live threads (peak %d), %.1f MB heap used after GC%n",
+                mode, threads.getThreadCount(), threads.getPeakThreadCount(), heapUsed / 1e6);
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        // Sends one request; true on a 2xx response
+        boolean call() throws Exception;
+    }
+
+    private static final class Client {
+
+        private final HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        private final String baseUri;
+        // Ids returned by the POSTs, which need not be contiguous
+        private final AtomicLongArray createdIds = new AtomicLongArray(PermutationRank.PERMUTATION_COUNT);
+        private final AtomicInteger createdCount = new AtomicInteger();
+        // Id first returned for each rank by postDuplicate
+        private final AtomicLongArray idsByRank = new AtomicLongArray(PermutationRank.PERMUTATION_COUNT);
+
+        Client(int port) {
+            this.baseUri = "http://localhost:" + port + "/api/attempts";
+        }
+
+        boolean post(int rank) throws Exception {
+            HttpResponse<String> response = send(rank);
+            if (!isSuccess(response.statusCode())) {
+                return false;
+            }
+            int index = createdCount.getAndIncrement();
+            if (index < createdIds.length()) {
+                createdIds.set(index, parseId(response.body()));
+            }
+            return true;
+        }
+
+        // Succeeds when the response is a 2xx with the same id as every other response for this input
+        boolean postDuplicate(int rank) throws Exception {
+            HttpResponse<String> response = send(rank);
+            if (!isSuccess(response.statusCode())) {
+                return false;
+            }
+            long id = parseId(response.body());
+            return idsByRank.compareAndExchange(rank, 0, id) == 0 || idsByRank.get(rank) == id;
+        }
+
+        private HttpResponse<String> send(int rank) throws Exception {
+            String body = "{\"attemptInput\":\"" + attemptInput(rank) + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        long randomCreatedId() {
+            int count = Math.min(createdCount.get(), createdIds.length());
+            return count == 0 ? 1 : createdIds.get(ThreadLocalRandom.current().nextInt(count));
+        }
+
+        boolean get(long id) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/" + id)).GET().build();
+            return isSuccess(http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+
+        private String attemptInput(int rank) {
+            int[] permutation = new int[9];
+            PermutationRank.unrank(rank, permutation);
+            StringBuilder input = new StringBuilder(9);
+            for (int digit : permutation) {
+                input.append(digit);
+            }
+            return input.toString();
+        }
+
+        // The "id" of an attempt in JSON, e.g. {"id":42,...}
+        private static long parseId(String json) {
+            int start = json.indexOf("\"id\":") + 5;
+            int end = start;
+            while (end < json.length() && Character.isDigit(json.charAt(end))) {
+                end++;
+            }
+            return Long.parseLong(json.substring(start, end));
+        }
+
+        private static boolean isSuccess(int status) {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    // Latencies of one client thread, in nanoseconds.
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+    }
+
+    private record Result(Recorder recorder, long elapsedNanos) {
+
+        void print(String mode, String endpoint) {
+            long[] sorted = Arrays.copyOf(recorder.latencies, recorder.count);
+            Arrays.sort(sorted);
+            System.out.printf("%-9s %-24s %9d %8d %10.1f %9.2f %9.2f %9.2f%n",
+                    mode, endpoint, sorted.length, recorder.errors,
+                    sorted.length * 1e9 / elapsedNanos,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.vietnamesepuzzle.benchmark;
+
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import com.example.vietnamesepuzzle.service.SolveProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The solver paths with persistence stubbed out: permutation generation,
+ * the optimized search and the naive 9! search. The solves run with and without
+ * metrics, which gives the instrumentation overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    private static final List<Integer> DIGITS = List.of(1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+    private PuzzleSolveService puzzleSolveService;
+
+    @Setup
+    public void setUp() {
+        puzzleSolveService = BenchmarkFixtures.puzzleSolveService();
+    }
+
+    @Benchmark
+    public List<List<Integer>> permutations(PermutationLength length) {
+        return puzzleSolveService.permutations(DIGITS, length.k);
+    }
+
+    // Stores every candidate until the first solution, as POST /solutions does
+    @Benchmark
+    public Map<String, Object> optimizedStoreAll(Instrumented instrumented) {
+        return instrumented.puzzleSolveService.generateSolutions(SolveMode.OPTIMIZED, new SolveProgress());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public List<String> naive(Instrumented instrumented) {
+        List<String> solutions = new ArrayList<>();
+        instrumented.puzzleSolveService.backtrackNaive(new ArrayList<>(), new ArrayList<>(DIGITS), solutions);
+        return solutions;
+    }
+
+    // Kept in its own state so that only permutations() is parameterized
+    @State(Scope.Benchmark)
+    public static class PermutationLength {
+        @Param({"2", "5"})
+        public int k;
+    }
+
+    // A service with metrics on or off, to measure the instrumentation overhead
+    @State(Scope.Thread)
+    public static class Instrumented {
+        @Param({"false", "true"})
+        public boolean metrics;
+
+        PuzzleSolveService puzzleSolveService;
+
+        @Setup
+        public void setUp() {
+            puzzleSolveService = BenchmarkFixtures.puzzleSolveService(metrics);
+        }
+    }
+}
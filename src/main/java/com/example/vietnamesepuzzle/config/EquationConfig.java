@@ -0,0 +1,30 @@
+package com.example.vietnamesepuzzle.config;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EquationConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(EquationConfig.class);
+
+    // Attempts are permutations of the digits 1..9, so the equation needs exactly 9 letters.
+    private static final int ATTEMPT_LENGTH = 9;
+
+    @Bean
+    public PuzzleEquation puzzleEquation(
+            @Value("${puzzle.equation:" + PuzzleEquation.VIETNAMESE_PUZZLE + "}") String source) {
+        PuzzleEquation equation = PuzzleEquation.compile(source);
+        if (equation.getVariableCount() != ATTEMPT_LENGTH) {
+            throw new IllegalStateException("The puzzle equation must use exactly " + ATTEMPT_LENGTH
+                    + " variables, found " + equation.getVariableCount() + " in: " + source);
+        }
+        log.info("Puzzle equation compiled: {} (polynomial form: {})",
+                source, equation.getPolynomial().isPresent());
+        return equation;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.vietnamesepuzzle.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fails fast when virtual threads are requested on a JVM that does not have them:
+ * Spring Boot would otherwise silently keep the platform thread pools.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    private static final int MIN_JAVA_VERSION = 21;
+
+    public VirtualThreadsConfig() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < MIN_JAVA_VERSION) {
+            throw new IllegalStateException("Virtual threads need Java " + MIN_JAVA_VERSION
+                    + ", this JVM is Java " + javaVersion + " (build with -Pjava21 and run on a JDK 21)");
+        }
+        log.info("Request handling runs on virtual threads");
+    }
+}
@@ -1,28 +1,67 @@
 package com.example.vietnamesepuzzle.controller;
 
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
 import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.service.AttemptCreation;
 import com.example.vietnamesepuzzle.service.AttemptService;
-import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.CoalescingSolveService;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.SolutionIndex;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/attempts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AttemptController {
 
+    // NDJSON rows are flushed to the client every this many attempts.
+    private static final int STREAM_FLUSH_ROWS = 500;
+
     private final AttemptService attemptService;
-    private final PuzzleSolveService puzzleSolveService;
+    private final CoalescingSolveService coalescingSolveService;
+    private final ParallelSolveService parallelSolveService;
+    private final VerdictIndex verdictIndex;
+    private final SolutionIndex solutionIndex;
+    private final ObjectWriter attemptWriter;
+    private final ObjectReader itemReader;
 
     public AttemptController(
             AttemptService attemptService,
-            PuzzleSolveService puzzleSolveService
+            CoalescingSolveService coalescingSolveService,
+            ParallelSolveService parallelSolveService,
+            VerdictIndex verdictIndex,
+            SolutionIndex solutionIndex,
+            ObjectMapper objectMapper
     ) {
         this.attemptService = attemptService;
-        this.puzzleSolveService = puzzleSolveService;
+        this.coalescingSolveService = coalescingSolveService;
+        this.parallelSolveService = parallelSolveService;
+        this.verdictIndex = verdictIndex;
+        this.solutionIndex = solutionIndex;
+        this.attemptWriter = objectMapper.writerFor(Attempt.class);
+        this.itemReader = objectMapper.readerFor(JsonNode.class);
     }
 
     // GET all attempts.
@@ -31,11 +70,86 @@ public class AttemptController {
         return attemptService.getAllAttempts();
     }
 
-    // POST create a new attempt.
+    /**
+     * GET /api/attempts/page?after={id}&limit={n}&correct={true|false}
+     * Keyset pagination: returns up to "limit" attempts with an id greater than "after".
+     * The "nextCursor" of the response is the "after" value of the next page (null on the last page).
+     */
+    @GetMapping("/page")
+    public Map<String, Object> getAttemptsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Boolean correct) {
+        List<Attempt> items = attemptService.getAttemptsPage(after, limit, correct);
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", items.size() < limit ? null : items.get(items.size() - 1).getId());
+        return page;
+    }
+
+    /**
+     * GET /api/attempts/stream?correct={true|false}
+     * Streams all attempts as newline-delimited JSON, reading them through a database cursor.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAttempts(@RequestParam(required = false) Boolean correct) {
+        StreamingResponseBody body = out -> {
+            try {
+                writeNdjson(correct, out);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // POST create a new attempt: 201 with the new attempt, or 200 with the stored one for an input already submitted.
     @PostMapping
     public ResponseEntity<Attempt> createAttempt(@RequestBody Attempt attempt) {
-        Attempt createdAttempt = attemptService.createAttempt(attempt);
-        return new ResponseEntity<>(createdAttempt, HttpStatus.CREATED);
+        AttemptCreation creation = attemptService.createAttempt(attempt);
+        return new ResponseEntity<>(creation.attempt(), creation.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    /**
+     * POST /api/attempts/batch
+     * Creates many attempts in one transaction. The body is a JSON array or NDJSON (one item per line);
+     * an item is an attempt object such as {"attemptInput": "123456789"} or just the input string.
+     * Returns the "created", "duplicates" and "invalid" counts and one entry per item in "results".
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Map<String, Object>> createAttempts(InputStream body) throws IOException {
+        List<Map<String, Object>> results = attemptService.createAttempts(readAttemptInputs(body));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map<String, Object> result : results) {
+            counts.merge((String) result.get("status"), 1, Integer::sum);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("created", counts.getOrDefault("CREATED", 0));
+        response.put("duplicates", counts.getOrDefault("DUPLICATE", 0));
+        response.put("invalid", counts.getOrDefault("INVALID", 0));
+        response.put("results", results);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * GET /api/attempts/cache
+     * Hit, miss and put counts and hit rates of the attempt second-level cache and of the query cache.
+     */
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheStatistics() {
+        return attemptService.getCacheStatistics();
+    }
+
+    /**
+     * GET /api/attempts/stats
+     * Total, correct and incorrect attempt counts, attempts created since startup and the creation rate
+     * over the last minute. Read from in-memory counters, without querying the table.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStatistics() {
+        return attemptService.getStatistics();
     }
 
     // GET an attempt by its id.
@@ -71,11 +185,97 @@ public class AttemptController {
     /**
      * POST /api/attempts/generateSolution
      * Generates a solution by evaluating all permutations until the equation is satisfied.
+     * Concurrent requests for the same mode share one solve (see {@link CoalescingSolveService}).
      * Returns a JSON object containing the found solution (or null if none) and the duration in milliseconds.
      */
     @PostMapping("/solutions")
-    public ResponseEntity<Map<String, Object>> generateSolutions() {
-        Map<String, Object> result = puzzleSolveService.generateSolutions();
+    public ResponseEntity<Map<String, Object>> generateSolutions(
+            @RequestParam(defaultValue = "optimized") String mode) {
+        Map<String, Object> result = coalescingSolveService.generateSolutions(SolveMode.fromParameter(mode));
         return new ResponseEntity<>(result, HttpStatus.CREATED);
     }
+
+    /**
+     * GET /api/attempts/solutions
+     * Lists the solutions known since startup (solved, or read from the solution snapshot), without solving.
+     * Returns a JSON object containing the solutions, their count and where they came from.
+     */
+    @GetMapping("/solutions")
+    public ResponseEntity<Map<String, Object>> getKnownSolutions() {
+        return new ResponseEntity<>(verdictIndex.getKnownSolutions(), HttpStatus.OK);
+    }
+
+    /**
+     * GET /api/attempts/solutions/hints?A={digit}&F={digit}&offset={n}&limit={n}
+     * Hints for a partial assignment of letters A..I: how many solutions remain, the digits each letter can
+     * still take, and a page of the remaining solutions. Answered from an index of the known solutions.
+     */
+    @GetMapping("/solutions/hints")
+    public Map<String, Object> getHints(@RequestParam Map<String, String> params,
+                                        @RequestParam(defaultValue = "0") int offset,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        Map<String, String> assignment = new HashMap<>(params);
+        assignment.remove("offset");
+        assignment.remove("limit");
+        return solutionIndex.query(SolutionIndex.parseAssignment(assignment), offset, limit);
+    }
+
+    /**
+     * GET /api/attempts/solutions/nearest?attemptInput={digits}
+     * The solution reached from the input with the fewest swaps of two letters' digits.
+     * Returns a JSON object containing the solution, the swap and Kendall tau distances, the letters
+     * whose digit changes and the swaps to apply in order.
+     */
+    @GetMapping("/solutions/nearest")
+    public Map<String, Object> getNearestSolution(@RequestParam String attemptInput) {
+        return attemptService.findNearestSolution(attemptInput);
+    }
+
+    /**
+     * POST /api/attempts/solutions/all
+     * Enumerates every solution of the equation in parallel, without storing attempts.
+     * The optional "parallelism" parameter overrides the configured pool size, up to puzzle.solver.max-parallelism.
+     * Returns a JSON object containing the solutions, their count and the duration in milliseconds.
+     */
+    @PostMapping("/solutions/all")
+    public ResponseEntity<Map<String, Object>> generateAllSolutions(
+            @RequestParam(required = false) Integer parallelism) {
+        Map<String, Object> result = parallelSolveService.generateAllSolutions(parallelism);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    // A root array is unwrapped, and NDJSON is read as a sequence of root values.
+    private List<String> readAttemptInputs(InputStream body) throws IOException {
+        List<String> attemptInputs = new ArrayList<>();
+        try (MappingIterator<JsonNode> items = itemReader.readValues(body)) {
+            while (items.hasNextValue()) {
+                if (attemptInputs.size() == AttemptService.MAX_BATCH_SIZE) {
+                    throw new InvalidRequestException(
+                            "A batch must not have more than " + AttemptService.MAX_BATCH_SIZE + " attempts.");
+                }
+                JsonNode item = items.nextValue();
+                JsonNode input = item.isObject() ? item.get("attemptInput") : item;
+                attemptInputs.add(input != null && input.isValueNode() && !input.isNull() ? input.asText() : null);
+            }
+        } catch (JsonProcessingException ex) {
+            throw new InvalidRequestException("Malformed batch body: " + ex.getOriginalMessage());
+        }
+        return attemptInputs;
+    }
+
+    private void writeNdjson(Boolean correct, OutputStream out) throws IOException {
+        int[] rows = {0};
+        attemptService.forEachAttempt(correct, attempt -> {
+            try {
+                out.write(attemptWriter.writeValueAsBytes(attempt));
+                out.write('\n');
+                if (++rows[0] % STREAM_FLUSH_ROWS == 0) {
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        out.flush();
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.vietnamesepuzzle.controller;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.service.ShardCoordinator;
+import com.example.vietnamesepuzzle.service.ShardSolveService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Sharded solves: every instance is a worker, and the instance called on
+ * /solutions/distributed coordinates (see {@link ShardCoordinator}).
+ * Both routes block until done, so they are only served by the servlet stack.
+ */
+@RestController
+@RequestMapping("/api/attempts/solutions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ShardSolveController {
+
+    private final ShardSolveService shardSolveService;
+    private final ShardCoordinator shardCoordinator;
+
+    public ShardSolveController(ShardSolveService shardSolveService, ShardCoordinator shardCoordinator) {
+        this.shardSolveService = shardSolveService;
+        this.shardCoordinator = shardCoordinator;
+    }
+
+    /**
+     * POST /api/attempts/solutions/shards?fromRank={from}&toRank={to} or ?prefix={digits}
+     * Worker route: solves one shard, a rank range or the permutations starting with a prefix,
+     * without storing attempts.
+     * Returns a JSON object containing the range, its solutions in rank order and the duration in milliseconds.
+     */
+    @PostMapping("/shards")
+    public ResponseEntity<Map<String, Object>> solveShard(@RequestParam(required = false) Integer fromRank,
+                                                          @RequestParam(required = false) Integer toRank,
+                                                          @RequestParam(required = false) String prefix) {
+        int[] range;
+        if (prefix != null) {
+            range = ShardSolveService.prefixRange(prefix);
+        } else if (fromRank != null && toRank != null) {
+            range = new int[]{fromRank, toRank};
+        } else {
+            throw new InvalidRequestException("Either fromRank and toRank, or prefix, is required.");
+        }
+        return new ResponseEntity<>(shardSolveService.solveShard(range[0], range[1]), HttpStatus.OK);
+    }
+
+    /**
+     * POST /api/attempts/solutions/distributed?shards={count}
+     * Coordinator route: solves all permutations on the workers of puzzle.cluster.workers.
+     * Returns a JSON object containing the merged solutions, their count, how many shards each worker
+     * solved, the number of retries and the duration in milliseconds.
+     */
+    @PostMapping("/distributed")
+    public ResponseEntity<Map<String, Object>> solveDistributed(@RequestParam(required = false) Integer shards) {
+        return new ResponseEntity<>(shardCoordinator.solve(shards), HttpStatus.OK);
+    }
+}
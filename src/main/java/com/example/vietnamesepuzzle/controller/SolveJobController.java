@@ -0,0 +1,71 @@
+package com.example.vietnamesepuzzle.controller;
+
+import com.example.vietnamesepuzzle.service.SolveJob;
+import com.example.vietnamesepuzzle.service.SolveJobEvent;
+import com.example.vietnamesepuzzle.service.SolveJobService;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attempts/solutions/jobs")
+public class SolveJobController {
+
+    private final SolveJobService solveJobService;
+
+    public SolveJobController(SolveJobService solveJobService) {
+        this.solveJobService = solveJobService;
+    }
+
+    /**
+     * POST /api/attempts/solutions/jobs?mode={optimized|branch_and_bound|naive}
+     * Queues a solve and returns immediately with its job id.
+     * Returns 429 when too many jobs are already queued.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitJob(@RequestParam(defaultValue = "optimized") String mode) {
+        SolveJob job = solveJobService.submit(SolveMode.fromParameter(mode));
+        return new ResponseEntity<>(job.toMap(), HttpStatus.ACCEPTED);
+    }
+
+    // GET the status, progress and (once finished) result of a job.
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable Long id) {
+        SolveJob job = solveJobService.getJob(id);
+        return job != null ? new ResponseEntity<>(job.toMap(), HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * GET /api/attempts/solutions/jobs/{id}/events
+     * Server-Sent Events stream of a job: "progress" (explored, persisted, solutionsFound,
+     * candidatesPerSecond), "solutions" as they are found, and a final "done" with the job's snapshot.
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<Map<String, Object>>>> streamJobEvents(@PathVariable Long id) {
+        SolveJob job = solveJobService.getJob(id);
+        if (job == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(solveJobService.events(job).map(SolveJobController::toServerSentEvent),
+                HttpStatus.OK);
+    }
+
+    // DELETE cancels a queued or running job.
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable Long id) {
+        SolveJob job = solveJobService.cancel(id);
+        return job != null ? new ResponseEntity<>(job.toMap(), HttpStatus.OK)
+                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+
+    private static ServerSentEvent<Map<String, Object>> toServerSentEvent(SolveJobEvent event) {
+        return ServerSentEvent.builder(event.data()).event(event.name()).build();
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Depth-first branch and bound over the assignments of an equation with a {@link PolynomialForm}.
+ * <p>
+ * On top of the integrality check and the direct solving of the last linear variable
+ * (see {@link EquationSolver}), every node bounds {@code lhs - rhs} over all completions and
+ * cuts the branch when 0 is out of reach:
+ * <ul>
+ *     <li>terms whose variables are all assigned are summed;</li>
+ *     <li>the {@code c * X} terms of unassigned linear variables take distinct free values, so their
+ *     extremes follow from the rearrangement inequality (largest coefficients on the smallest
+ *     values for the minimum);</li>
+ *     <li>other terms get interval bounds, each unassigned variable ranging over the free values.</li>
+ * </ul>
+ * Variables are assigned in a cost-driven order: integrality variables first (their check is the
+ * strongest cut), then the other non-linear ones, then the linear ones, each group sorted by how
+ * wide a range its terms span, since fixing those narrows the bounds most.
+ * Bounds are computed with doubles and a small tolerance, so they never cut a solution;
+ * solutions themselves are checked exactly. A solver keeps per-search state: use one per thread.
+ */
+public final class BranchAndBoundSolver {
+
+    // Relative slack on the bounds, far above double rounding on these magnitudes
+    private static final double TOLERANCE = 1e-9;
+
+    private final EquationEvaluator evaluator;
+    private final int n;
+    private final int[] domain; // ascending
+    private final int minValue;
+    private final int[] domainIndexOfValue;
+
+    private final int[] order;
+    private final int[] depthOf; // variable -> position in order
+    private final int integralityDepth;
+    private final boolean lastIsLinear;
+
+    // Exact sums for the integrality check and for solving the last variable
+    private final CompiledTerms fractionalTerms;
+    private final CompiledTerms residualTerms;
+    private final long lastCoefficientNum;
+    private final long lastCoefficientDen;
+
+    // Terms as doubles, for the bounds
+    private final double[] coefficients;
+    private final int[] factorStart;
+    private final int[] factorVariables;
+    private final int[] factorExponents;
+    private final int[] linearVariable; // variable of a c * X term of a linear variable, or -1
+    // Coefficients of the linear variables still unassigned at each depth, by sign, largest magnitude first
+    private final double[][] positiveLinear;
+    private final double[][] negativeLinear;
+
+    // Complete assignments below a node at each depth, as in EquationSolver
+    private final long[] subtreeSizes;
+
+    // Search state
+    private final int[] values;
+    private final int[] freeValues;
+    private int usedMask;
+    private boolean stopped;
+    private long nodesVisited;
+    private long nodesPruned;
+    private long prunedCandidates;
+
+    public BranchAndBoundSolver(PuzzleEquation equation, int[] domain) {
+        PolynomialForm polynomial = equation.getPolynomial().orElseThrow(() -> new IllegalArgumentException(
+                "Branch and bound needs an equation without division by a sum: " + equation));
+        this.evaluator = equation.newEvaluator();
+        this.n = equation.getVariableCount();
+        if (domain.length < n || domain.length > 31) {
+            throw new IllegalArgumentException("The domain must have between " + n + " and 31 values.");
+        }
+        this.domain = domain.clone();
+        Arrays.sort(this.domain);
+        this.minValue = this.domain[0];
+        this.domainIndexOfValue = new int[this.domain[this.domain.length - 1] - minValue + 1];
+        Arrays.fill(domainIndexOfValue, -1);
+        for (int i = 0; i < this.domain.length; i++) {
+            if (domainIndexOfValue[this.domain[i] - minValue] >= 0) {
+                throw new IllegalArgumentException("The domain values must be distinct.");
+            }
+            domainIndexOfValue[this.domain[i] - minValue] = i;
+        }
+        this.values = new int[n];
+        this.freeValues = new int[this.domain.length];
+        this.subtreeSizes = new long[n + 1];
+        subtreeSizes[n] = 1;
+        for (int depth = n - 1; depth >= 0; depth--) {
+            subtreeSizes[depth] = subtreeSizes[depth + 1] * (domain.length - depth);
+        }
+
+        List<PolynomialForm.Term> terms = polynomial.getTerms();
+        boolean[] integrality = polynomial.integralityVariables();
+        double[] widths = variableWidths(terms);
+        Comparator<Integer> widestFirst = Comparator.comparingDouble((Integer v) -> -widths[v]);
+        List<Integer> ordered = new ArrayList<>();
+        IntStream.range(0, n).filter(v -> integrality[v]).boxed().sorted(widestFirst).forEach(ordered::add);
+        IntStream.range(0, n).filter(v -> !integrality[v] && !polynomial.isLinear(v)).boxed()
+                .sorted(widestFirst).forEach(ordered::add);
+        IntStream.range(0, n).filter(v -> !integrality[v] && polynomial.isLinear(v)).boxed()
+                .sorted(widestFirst).forEach(ordered::add);
+        this.order = ordered.stream().mapToInt(Integer::intValue).toArray();
+        this.depthOf = new int[n];
+        for (int depth = 0; depth < n; depth++) {
+            depthOf[order[depth]] = depth;
+        }
+        int integralityCount = 0;
+        for (boolean flag : integrality) {
+            integralityCount += flag ? 1 : 0;
+        }
+        this.integralityDepth = integralityCount;
+        this.lastIsLinear = n > 0 && !integrality[order[n - 1]] && polynomial.isLinear(order[n - 1]);
+
+        List<PolynomialForm.Term> fractional = new ArrayList<>();
+        List<PolynomialForm.Term> residual = new ArrayList<>();
+        long coefficientNum = 0;
+        long coefficientDen = 1;
+        this.coefficients = new double[terms.size()];
+        this.factorStart = new int[terms.size() + 1];
+        this.linearVariable = new int[terms.size()];
+        List<int[]> factors = new ArrayList<>();
+        for (int t = 0; t < terms.size(); t++) {
+            PolynomialForm.Term term = terms.get(t);
+            if (!term.isIntegral()) {
+                fractional.add(term);
+            }
+            if (lastIsLinear && term.uses(order[n - 1])) {
+                coefficientNum = term.coefficientNum();
+                coefficientDen = term.coefficientDen();
+            } else {
+                residual.add(term);
+            }
+            coefficients[t] = (double) term.coefficientNum() / term.coefficientDen();
+            factorStart[t] = factors.size();
+            linearVariable[t] = -1;
+            for (int v = 0; v < n; v++) {
+                if (term.uses(v)) {
+                    factors.add(new int[]{v, term.exponents()[v]});
+                    if (polynomial.isLinear(v)) {
+                        linearVariable[t] = v;
+                    }
+                }
+            }
+        }
+        factorStart[terms.size()] = factors.size();
+        this.factorVariables = factors.stream().mapToInt(factor -> factor[0]).toArray();
+        this.factorExponents = factors.stream().mapToInt(factor -> factor[1]).toArray();
+        this.fractionalTerms = new CompiledTerms(fractional, n);
+        this.residualTerms = new CompiledTerms(residual, n);
+        this.lastCoefficientNum = coefficientNum;
+        this.lastCoefficientDen = coefficientDen;
+
+        this.positiveLinear = new double[n + 1][];
+        this.negativeLinear = new double[n + 1][];
+        for (int depth = 0; depth <= n; depth++) {
+            List<Double> positive = new ArrayList<>();
+            List<Double> negative = new ArrayList<>();
+            for (int t = 0; t < terms.size(); t++) {
+                if (linearVariable[t] >= 0 && depthOf[linearVariable[t]] >= depth) {
+                    (coefficients[t] > 0 ? positive : negative).add(coefficients[t]);
+                }
+            }
+            positiveLinear[depth] = positive.stream().mapToDouble(Double::doubleValue)
+                    .boxed().sorted(Comparator.reverseOrder()).mapToDouble(Double::doubleValue).toArray();
+            negativeLinear[depth] = negative.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        }
+    }
+
+    /**
+     * @return the variable indices in the order they are assigned
+     */
+    public int[] getSearchOrder() {
+        return order.clone();
+    }
+
+    // Partial or complete assignments made by the last search (one per value given to a variable).
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    // Visited nodes whose subtree the last search cut, by the bounds or the integrality check.
+    public long getNodesPruned() {
+        return nodesPruned;
+    }
+
+    // Complete assignments the last search ruled out without visiting them.
+    public long getPrunedCandidates() {
+        return prunedCandidates;
+    }
+
+    // Visits every solution, in ascending order of the values along the search order.
+    public void forEachSolution(EquationSolver.SolutionVisitor visitor) {
+        stopped = false;
+        usedMask = 0;
+        nodesVisited = 0;
+        nodesPruned = 0;
+        prunedCandidates = 0;
+        search(0, visitor);
+    }
+
+    private void search(int depth, EquationSolver.SolutionVisitor visitor) {
+        if (depth == integralityDepth && depth > 0 && !fractionalSumIsInteger()) {
+            nodesPruned++;
+            prunedCandidates += subtreeSizes[depth];
+            return;
+        }
+        if (depth == n) {
+            if (evaluator.isSatisfiedBy(values) && !visitor.visit(values)) {
+                stopped = true;
+            }
+            return;
+        }
+        if (lastIsLinear && depth == n - 1) {
+            solveLast(visitor);
+            return;
+        }
+        if (depth > 0 && !boundsReachZero(depth)) {
+            nodesPruned++;
+            prunedCandidates += subtreeSizes[depth];
+            return;
+        }
+        int variable = order[depth];
+        for (int i = 0; i < domain.length && !stopped; i++) {
+            if ((usedMask & (1 << i)) == 0) {
+                usedMask |= 1 << i;
+                values[variable] = domain[i];
+                nodesVisited++;
+                search(depth + 1, visitor);
+                usedMask &= ~(1 << i);
+            }
+        }
+    }
+
+    // Whether some completion of the first depth variables could make lhs - rhs zero.
+    private boolean boundsReachZero(int depth) {
+        int free = 0;
+        for (int i = 0; i < domain.length; i++) {
+            if ((usedMask & (1 << i)) == 0) {
+                freeValues[free++] = domain[i];
+            }
+        }
+        double low = freeValues[0];
+        double high = freeValues[free - 1];
+
+        double min = 0;
+        double max = 0;
+        for (int t = 0; t < coefficients.length; t++) {
+            if (linearVariable[t] >= 0 && depthOf[linearVariable[t]] >= depth) {
+                continue; // bounded below, with the other unassigned linear terms
+            }
+            double termMin = coefficients[t];
+            double termMax = coefficients[t];
+            for (int f = factorStart[t]; f < factorStart[t + 1]; f++) {
+                int variable = factorVariables[f];
+                int exponent = factorExponents[f];
+                double factorMin;
+                double factorMax;
+                if (depthOf[variable] < depth) {
+                    factorMin = factorMax = power(values[variable], exponent);
+                } else {
+                    if (exponent < 0 && low <= 0 && high >= 0) {
+                        return true; // unbounded: 1 / X with X possibly 0
+                    }
+                    double a = power(low, exponent);
+                    double b = power(high, exponent);
+                    factorMin = Math.min(a, b);
+                    factorMax = Math.max(a, b);
+                    if (exponent % 2 == 0 && low < 0 && high > 0) {
+                        factorMin = 0;
+                    }
+                }
+                double p1 = termMin * factorMin;
+                double p2 = termMin * factorMax;
+                double p3 = termMax * factorMin;
+                double p4 = termMax * factorMax;
+                termMin = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+                termMax = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+            }
+            min += termMin;
+            max += termMax;
+        }
+
+        double[] positive = positiveLinear[depth];
+        double[] negative = negativeLinear[depth];
+        for (int i = 0; i < positive.length; i++) {
+            min += positive[i] * freeValues[i];
+            max += positive[i] * freeValues[free - 1 - i];
+        }
+        for (int i = 0; i < negative.length; i++) {
+            min += negative[i] * freeValues[free - 1 - i];
+            max += negative[i] * freeValues[i];
+        }
+
+        double slack = TOLERANCE * (1 + Math.max(Math.abs(min), Math.abs(max)));
+        return min <= slack && max >= -slack;
+    }
+
+    // The other terms sum to r = num/den, so c * X + r == 0 gives X = -r / c.
+    private void solveLast(EquationSolver.SolutionVisitor visitor) {
+        prunedCandidates += subtreeSizes[n - 1];
+        long num = residualTerms.sumNum(values);
+        long den = residualTerms.lastDen();
+        if (den == 0) {
+            return;
+        }
+        long valueNum = Math.multiplyExact(-num, lastCoefficientDen);
+        long valueDen = Math.multiplyExact(den, lastCoefficientNum);
+        if (valueNum % valueDen != 0) {
+            return;
+        }
+        long value = valueNum / valueDen;
+        if (value < minValue || value - minValue >= domainIndexOfValue.length) {
+            return;
+        }
+        int index = domainIndexOfValue[(int) (value - minValue)];
+        if (index < 0 || (usedMask & (1 << index)) != 0) {
+            return;
+        }
+        values[order[n - 1]] = (int) value;
+        prunedCandidates--;
+        nodesVisited++;
+        if (!visitor.visit(values)) {
+            stopped = true;
+        }
+    }
+
+    private boolean fractionalSumIsInteger() {
+        long num = fractionalTerms.sumNum(values);
+        long den = fractionalTerms.lastDen();
+        return den != 0 && num % den == 0;
+    }
+
+    // Range each variable's terms can span over the whole domain; a wider one is assigned earlier.
+    private double[] variableWidths(List<PolynomialForm.Term> terms) {
+        double low = domain[0];
+        double high = domain[domain.length - 1];
+        double[] widths = new double[n];
+        for (PolynomialForm.Term term : terms) {
+            double termMin = (double) term.coefficientNum() / term.coefficientDen();
+            double termMax = termMin;
+            for (int v = 0; v < n; v++) {
+                int exponent = term.exponents()[v];
+                if (exponent == 0) {
+                    continue;
+                }
+                if (exponent < 0 && low <= 0 && high >= 0) {
+                    termMin = Double.NEGATIVE_INFINITY;
+                    termMax = Double.POSITIVE_INFINITY;
+                    break;
+                }
+                double a = power(low, exponent);
+                double b = power(high, exponent);
+                double[] products = {termMin * a, termMin * b, termMax * a, termMax * b};
+                termMin = Arrays.stream(products).min().orElseThrow();
+                termMax = Arrays.stream(products).max().orElseThrow();
+            }
+            for (int v = 0; v < n; v++) {
+                if (term.uses(v)) {
+                    widths[v] += termMax - termMin;
+                }
+            }
+        }
+        return widths;
+    }
+
+    private static double power(double value, int exponent) {
+        double result = 1;
+        for (int e = 0; e < Math.abs(exponent); e++) {
+            result *= value;
+        }
+        return exponent < 0 ? 1 / result : result;
+    }
+}
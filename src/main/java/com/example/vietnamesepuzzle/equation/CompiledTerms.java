@@ -0,0 +1,76 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Terms flattened into arrays, summed as an unreduced rational on primitive longs.
+ * The denominator of the last sum is left in {@link #lastDen()}, so summing allocates nothing.
+ * Not thread-safe.
+ */
+final class CompiledTerms {
+    private final long[] coefficientNums;
+    private final long[] coefficientDens;
+    private final int[] factorStart; // factors of term t are [factorStart[t], factorStart[t + 1])
+    private final int[] factorVariables;
+    private final int[] factorExponents;
+    private long lastDen;
+
+    CompiledTerms(List<PolynomialForm.Term> terms, int variableCount) {
+        coefficientNums = new long[terms.size()];
+        coefficientDens = new long[terms.size()];
+        factorStart = new int[terms.size() + 1];
+        List<int[]> factors = new ArrayList<>();
+        for (int t = 0; t < terms.size(); t++) {
+            PolynomialForm.Term term = terms.get(t);
+            coefficientNums[t] = term.coefficientNum();
+            coefficientDens[t] = term.coefficientDen();
+            factorStart[t] = factors.size();
+            for (int v = 0; v < variableCount; v++) {
+                if (term.uses(v)) {
+                    factors.add(new int[]{v, term.exponents()[v]});
+                }
+            }
+        }
+        factorStart[terms.size()] = factors.size();
+        factorVariables = new int[factors.size()];
+        factorExponents = new int[factors.size()];
+        for (int f = 0; f < factors.size(); f++) {
+            factorVariables[f] = factors.get(f)[0];
+            factorExponents[f] = factors.get(f)[1];
+        }
+    }
+
+    long sumNum(int[] values) {
+        long num = 0;
+        long den = 1;
+        for (int t = 0; t < coefficientNums.length; t++) {
+            long termNum = coefficientNums[t];
+            long termDen = coefficientDens[t];
+            for (int f = factorStart[t]; f < factorStart[t + 1]; f++) {
+                long value = values[factorVariables[f]];
+                int exponent = factorExponents[f];
+                for (int e = 0; e < Math.abs(exponent); e++) {
+                    if (exponent > 0) {
+                        termNum = Math.multiplyExact(termNum, value);
+                    } else {
+                        termDen = Math.multiplyExact(termDen, value);
+                    }
+                }
+            }
+            if (termDen == den) {
+                num = Math.addExact(num, termNum);
+            } else {
+                num = Math.addExact(Math.multiplyExact(num, termDen), Math.multiplyExact(termNum, den));
+                den = Math.multiplyExact(den, termDen);
+            }
+        }
+        lastDen = den;
+        return num;
+    }
+
+    // Denominator of the last sum computed by sumNum.
+    long lastDen() {
+        return lastDen;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.vietnamesepuzzle.equation;
+
+/**
+ * Exact check of a {@link PuzzleEquation} for one assignment of its variables.
+ * Evaluations allocate nothing; an evaluator may keep scratch state, so use one per thread.
+ */
+public interface EquationEvaluator {
+
+    /**
+     * @param values variable values, indexed like the equation variables
+     * @return true when both sides are equal; false as well when a division by zero occurs
+     * @throws ArithmeticException if an intermediate value does not fit in 64 bits
+     */
+    boolean isSatisfiedBy(int[] values);
+}
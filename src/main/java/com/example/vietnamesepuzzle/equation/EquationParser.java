@@ -0,0 +1,135 @@
+package com.example.vietnamesepuzzle.equation;
+
+/**
+ * Recursive-descent parser for puzzle equations such as
+ * {@code A + 13 * B / C + D == 66}.
+ * <pre>
+ * equation := expr ('==' | '=') expr
+ * expr     := term (('+' | '-') term)*
+ * term     := unary (('*' | '/') unary)*
+ * unary    := '-' unary | primary
+ * primary  := NUMBER | LETTER | '(' expr ')'
+ * </pre>
+ * Syntax errors are reported as {@link IllegalArgumentException} with the offending position.
+ */
+public final class EquationParser {
+
+    private final String source;
+    private int pos;
+
+    private EquationParser(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @return the left and right sides of the equation
+     */
+    public static Expression[] parseEquation(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("The equation must not be empty.");
+        }
+        EquationParser parser = new EquationParser(source);
+        Expression left = parser.parseExpression();
+        parser.skipSpaces();
+        if (!parser.accept('=')) {
+            throw parser.error("Expected '=='");
+        }
+        parser.accept('='); // '==' and '=' are both accepted
+        Expression right = parser.parseExpression();
+        parser.skipSpaces();
+        if (parser.pos < source.length()) {
+            throw parser.error("Unexpected character '" + source.charAt(parser.pos) + "'");
+        }
+        return new Expression[]{left, right};
+    }
+
+    private Expression parseExpression() {
+        Expression left = parseTerm();
+        while (true) {
+            skipSpaces();
+            if (accept('+')) {
+                left = new Expression.Binary('+', left, parseTerm());
+            } else if (accept('-')) {
+                left = new Expression.Binary('-', left, parseTerm());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression parseTerm() {
+        Expression left = parseUnary();
+        while (true) {
+            skipSpaces();
+            if (accept('*')) {
+                left = new Expression.Binary('*', left, parseUnary());
+            } else if (accept('/')) {
+                left = new Expression.Binary('/', left, parseUnary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression parseUnary() {
+        skipSpaces();
+        if (accept('-')) {
+            return new Expression.Negation(parseUnary());
+        }
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() {
+        skipSpaces();
+        if (pos >= source.length()) {
+            throw error("Unexpected end of equation");
+        }
+        char c = source.charAt(pos);
+        if (accept('(')) {
+            Expression inner = parseExpression();
+            skipSpaces();
+            if (!accept(')')) {
+                throw error("Expected ')'");
+            }
+            return inner;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            pos++;
+            if (pos < source.length() && Character.isLetterOrDigit(source.charAt(pos))) {
+                throw error("Variables are single upper-case letters");
+            }
+            return new Expression.Variable(c);
+        }
+        if (c >= '0' && c <= '9') {
+            int start = pos;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+            try {
+                return new Expression.Constant(Long.parseLong(source.substring(start, pos)));
+            } catch (NumberFormatException ex) {
+                pos = start;
+                throw error("Number too large");
+            }
+        }
+        throw error("Unexpected character '" + c + "'");
+    }
+
+    private boolean accept(char expected) {
+        if (pos < source.length() && source.charAt(pos) == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in equation: " + source);
+    }
+}
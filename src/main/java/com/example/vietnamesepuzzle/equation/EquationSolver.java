@@ -0,0 +1,322 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depth-first search for assignments of distinct domain values to the variables of a
+ * {@link PuzzleEquation}, driven by the facts of its {@link PolynomialForm}:
+ * <ul>
+ *     <li>variables of non-integral terms are assigned first, and a branch is cut as soon
+ *     as those terms do not sum to an integer (the denominators must divide);</li>
+ *     <li>variables that appear only linearly come last, and when looking for solutions
+ *     the last one is solved for directly instead of being enumerated.</li>
+ * </ul>
+ * Equations without a polynomial form fall back to plain enumeration.
+ * The search allocates nothing per node. A solver keeps per-search state: use one per thread.
+ * After a search, {@link #getPrunedCandidates()} tells how many complete assignments it skipped,
+ * and {@link #getNodesVisited()} / {@link #getNodesPruned()} how much of the tree it walked.
+ */
+public final class EquationSolver {
+
+    // Receives each solution; return false to stop the search.
+    @FunctionalInterface
+    public interface SolutionVisitor {
+        boolean visit(int[] values);
+    }
+
+    // Receives each complete assignment tried and its verdict; return false to stop the search.
+    @FunctionalInterface
+    public interface CandidateVisitor {
+        boolean visit(int[] values, boolean correct);
+    }
+
+    private final PuzzleEquation equation;
+    private final EquationEvaluator evaluator;
+    private final int n;
+    private final int[] domain;
+    private final int minValue;
+    private final int[] domainIndexOfValue; // value - minValue -> domain index, or -1
+
+    private final int[] order;
+    private final int integralityDepth; // the integrality check runs once order[0..depth-1] are assigned
+    private final boolean lastIsLinear;
+
+    // Flattened non-integral terms, and the terms other than the last variable's linear term
+    private final CompiledTerms fractionalTerms;
+    private final CompiledTerms residualTerms;
+    private final long lastCoefficientNum;
+    private final long lastCoefficientDen;
+
+    // Complete assignments below a node at each depth: (d - depth)! / (d - n)! for d domain values
+    private final long[] subtreeSizes;
+
+    // Search state
+    private final int[] values;
+    private int usedMask;
+    private boolean stopped;
+    private long prunedCandidates;
+    private long nodesVisited;
+    private long nodesPruned;
+
+    public EquationSolver(PuzzleEquation equation, int[] domain) {
+        this.equation = equation;
+        this.evaluator = equation.newEvaluator();
+        this.n = equation.getVariableCount();
+        if (domain.length < n || domain.length > 31) {
+            throw new IllegalArgumentException("The domain must have between " + n + " and 31 values.");
+        }
+        this.domain = domain.clone();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int value : domain) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        this.minValue = min;
+        this.domainIndexOfValue = new int[max - min + 1];
+        Arrays.fill(domainIndexOfValue, -1);
+        for (int i = 0; i < domain.length; i++) {
+            if (domainIndexOfValue[domain[i] - min] >= 0) {
+                throw new IllegalArgumentException("The domain values must be distinct.");
+            }
+            domainIndexOfValue[domain[i] - min] = i;
+        }
+        this.values = new int[n];
+        this.subtreeSizes = new long[n + 1];
+        subtreeSizes[n] = 1;
+        for (int depth = n - 1; depth >= 0; depth--) {
+            subtreeSizes[depth] = subtreeSizes[depth + 1] * (domain.length - depth);
+        }
+
+        PolynomialForm polynomial = equation.getPolynomial().orElse(null);
+        this.order = new int[n];
+        if (polynomial == null) {
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            this.integralityDepth = 0;
+            this.lastIsLinear = false;
+            this.fractionalTerms = null;
+            this.residualTerms = null;
+            this.lastCoefficientNum = 0;
+            this.lastCoefficientDen = 1;
+            return;
+        }
+
+        // Integrality variables, then the other non-linear ones, then the linear ones
+        boolean[] integrality = polynomial.integralityVariables();
+        int position = 0;
+        for (int v = 0; v < n; v++) {
+            if (integrality[v]) {
+                order[position++] = v;
+            }
+        }
+        int integralityCount = position;
+        for (int v = 0; v < n; v++) {
+            if (!integrality[v] && !polynomial.isLinear(v)) {
+                order[position++] = v;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (!integrality[v] && polynomial.isLinear(v)) {
+                order[position++] = v;
+            }
+        }
+        this.integralityDepth = integralityCount;
+        this.lastIsLinear = n > 0 && !integrality[order[n - 1]] && polynomial.isLinear(order[n - 1]);
+
+        List<PolynomialForm.Term> fractional = new ArrayList<>();
+        List<PolynomialForm.Term> residual = new ArrayList<>();
+        long coefficientNum = 0;
+        long coefficientDen = 1;
+        for (PolynomialForm.Term term : polynomial.getTerms()) {
+            if (!term.isIntegral()) {
+                fractional.add(term);
+            }
+            if (lastIsLinear && term.uses(order[n - 1])) {
+                // Linear variables have a single term c * X
+                coefficientNum = term.coefficientNum();
+                coefficientDen = term.coefficientDen();
+            } else {
+                residual.add(term);
+            }
+        }
+        this.fractionalTerms = new CompiledTerms(fractional, n);
+        this.residualTerms = new CompiledTerms(residual, n);
+        this.lastCoefficientNum = coefficientNum;
+        this.lastCoefficientDen = coefficientDen;
+    }
+
+    public PuzzleEquation getEquation() {
+        return equation;
+    }
+
+    /**
+     * @return the variable indices in the order they are assigned
+     */
+    public int[] getSearchOrder() {
+        return order.clone();
+    }
+
+    /**
+     * @return the number of complete assignments the last search ruled out without visiting them,
+     * through the integrality check or by solving the last variable directly
+     */
+    public long getPrunedCandidates() {
+        return prunedCandidates;
+    }
+
+    // Partial or complete assignments made by the last search (one per value given to a variable).
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    // Visited nodes whose subtree the last search cut.
+    public long getNodesPruned() {
+        return nodesPruned;
+    }
+
+    // Visits every solution.
+    public void forEachSolution(SolutionVisitor visitor) {
+        forEachSolution(new int[0], 0, visitor);
+    }
+
+    /**
+     * Visits every solution whose first {@code prefixLength} variables in search order
+     * take the given values. Used to split a search into independent parts.
+     */
+    public void forEachSolution(int[] prefix, int prefixLength, SolutionVisitor visitor) {
+        if (start(prefix, prefixLength)) {
+            searchSolutions(prefixLength, visitor);
+        }
+    }
+
+    /**
+     * Visits every complete assignment that survives the integrality pruning, with its verdict.
+     * Unlike {@link #forEachSolution}, the last linear variable is enumerated too,
+     * so each candidate a player could try is reported.
+     */
+    public void forEachCandidate(CandidateVisitor visitor) {
+        if (start(new int[0], 0)) {
+            searchCandidates(0, visitor);
+        }
+    }
+
+    private boolean start(int[] prefix, int prefixLength) {
+        stopped = false;
+        usedMask = 0;
+        prunedCandidates = 0;
+        nodesVisited = 0;
+        nodesPruned = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            int index = domainIndex(prefix[depth]);
+            if (index < 0 || (usedMask & (1 << index)) != 0) {
+                return false;
+            }
+            usedMask |= 1 << index;
+            values[order[depth]] = prefix[depth];
+        }
+        if (prefixLength >= integralityDepth && integralityDepth > 0 && !fractionalSumIsInteger()) {
+            prunedCandidates += subtreeSizes[prefixLength];
+            return false;
+        }
+        return true;
+    }
+
+    private void searchSolutions(int depth, SolutionVisitor visitor) {
+        if (depth == integralityDepth && depth > 0 && !fractionalSumIsInteger()) {
+            prunedCandidates += subtreeSizes[depth];
+            nodesPruned++;
+            return;
+        }
+        if (depth == n) {
+            if (evaluator.isSatisfiedBy(values) && !visitor.visit(values)) {
+                stopped = true;
+            }
+            return;
+        }
+        if (lastIsLinear && depth == n - 1) {
+            solveLast(visitor);
+            return;
+        }
+        int variable = order[depth];
+        for (int i = 0; i < domain.length && !stopped; i++) {
+            if ((usedMask & (1 << i)) == 0) {
+                usedMask |= 1 << i;
+                values[variable] = domain[i];
+                nodesVisited++;
+                searchSolutions(depth + 1, visitor);
+                usedMask &= ~(1 << i);
+            }
+        }
+    }
+
+    private void searchCandidates(int depth, CandidateVisitor visitor) {
+        if (depth == integralityDepth && depth > 0 && !fractionalSumIsInteger()) {
+            prunedCandidates += subtreeSizes[depth];
+            nodesPruned++;
+            return;
+        }
+        if (depth == n) {
+            if (!visitor.visit(values, evaluator.isSatisfiedBy(values))) {
+                stopped = true;
+            }
+            return;
+        }
+        int variable = order[depth];
+        for (int i = 0; i < domain.length && !stopped; i++) {
+            if ((usedMask & (1 << i)) == 0) {
+                usedMask |= 1 << i;
+                values[variable] = domain[i];
+                nodesVisited++;
+                searchCandidates(depth + 1, visitor);
+                usedMask &= ~(1 << i);
+            }
+        }
+    }
+
+    // The other terms sum to r = num/den, so c * X + r == 0 gives X = -r / c.
+    // Of the values left for X, all but the solution (if any) are counted as pruned.
+    private void solveLast(SolutionVisitor visitor) {
+        prunedCandidates += subtreeSizes[n - 1];
+        long num = residualTerms.sumNum(values);
+        long den = residualTerms.lastDen();
+        if (den == 0) {
+            return;
+        }
+        long valueNum = Math.multiplyExact(-num, lastCoefficientDen);
+        long valueDen = Math.multiplyExact(den, lastCoefficientNum);
+        if (valueNum % valueDen != 0) {
+            return;
+        }
+        long value = valueNum / valueDen;
+        if (value < minValue || value - minValue >= domainIndexOfValue.length) {
+            return;
+        }
+        int index = domainIndexOfValue[(int) (value - minValue)];
+        if (index < 0 || (usedMask & (1 << index)) != 0) {
+            return;
+        }
+        values[order[n - 1]] = (int) value;
+        prunedCandidates--;
+        nodesVisited++;
+        if (!visitor.visit(values)) {
+            stopped = true;
+        }
+    }
+
+    private boolean fractionalSumIsInteger() {
+        long num = fractionalTerms.sumNum(values);
+        long den = fractionalTerms.lastDen();
+        return den != 0 && num % den == 0;
+    }
+
+    private int domainIndex(int value) {
+        if (value < minValue || value - minValue >= domainIndexOfValue.length) {
+            return -1;
+        }
+        return domainIndexOfValue[value - minValue];
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.vietnamesepuzzle.equation;
+
+/**
+ * Syntax tree of a puzzle expression, as produced by {@link EquationParser}.
+ * Variables are single upper-case letters.
+ */
+public sealed interface Expression {
+
+    record Constant(long value) implements Expression {
+    }
+
+    record Variable(char name) implements Expression {
+    }
+
+    record Negation(Expression operand) implements Expression {
+    }
+
+    // operator is one of '+', '-', '*', '/'
+    record Binary(char operator, Expression left, Expression right) implements Expression {
+    }
+}
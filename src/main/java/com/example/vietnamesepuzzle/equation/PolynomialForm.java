@@ -0,0 +1,224 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An equation {@code lhs - rhs == 0} normalized to a sum of terms
+ * {@code coefficient * X^a * Y^b ...}, where exponents may be negative (Laurent polynomial).
+ * This is what the pruning facts are derived from: which terms can be fractional,
+ * and which variables only appear linearly.
+ * Expressions dividing by a sum (e.g. {@code A / (B + C)}) have no such form.
+ */
+public final class PolynomialForm {
+
+    /**
+     * One term of the sum. {@code exponents} is indexed like the equation variables.
+     */
+    public record Term(long coefficientNum, long coefficientDen, int[] exponents) {
+
+        // A term is integral when it is an integer for every integer assignment.
+        public boolean isIntegral() {
+            if (coefficientDen != 1) {
+                return false;
+            }
+            for (int exponent : exponents) {
+                if (exponent < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public boolean uses(int variable) {
+            return exponents[variable] != 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Term other && coefficientNum == other.coefficientNum
+                    && coefficientDen == other.coefficientDen && Arrays.equals(exponents, other.exponents);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(coefficientNum * 31 + coefficientDen) + Arrays.hashCode(exponents);
+        }
+
+        @Override
+        public String toString() {
+            return coefficientNum + "/" + coefficientDen + " * " + Arrays.toString(exponents);
+        }
+    }
+
+    private final int variableCount;
+    private final List<Term> terms;
+
+    private PolynomialForm(int variableCount, List<Term> terms) {
+        this.variableCount = variableCount;
+        this.terms = Collections.unmodifiableList(terms);
+    }
+
+    /**
+     * Normalizes an expression, or returns empty if it divides by something other than a single term.
+     *
+     * @param variables the equation variables, sorted; their position is the exponent index
+     */
+    static Optional<PolynomialForm> of(Expression expression, char[] variables) {
+        Map<Monomial, Rational> sum = normalize(expression, variables);
+        if (sum == null) {
+            return Optional.empty();
+        }
+        List<Term> terms = new ArrayList<>();
+        sum.forEach((monomial, coefficient) -> {
+            if (!coefficient.isZero()) {
+                terms.add(new Term(coefficient.num(), coefficient.den(), monomial.exponents.clone()));
+            }
+        });
+        return Optional.of(new PolynomialForm(variables.length, terms));
+    }
+
+    public List<Term> getTerms() {
+        return terms;
+    }
+
+    /**
+     * A variable appears only linearly when every term using it is {@code c * X}:
+     * exponent 1 and no other variable. Such a variable can be solved for directly
+     * once all the others are known.
+     */
+    public boolean isLinear(int variable) {
+        boolean used = false;
+        for (Term term : terms) {
+            if (!term.uses(variable)) {
+                continue;
+            }
+            used = true;
+            if (term.exponents()[variable] != 1) {
+                return false;
+            }
+            for (int v = 0; v < variableCount; v++) {
+                if (v != variable && term.uses(v)) {
+                    return false;
+                }
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Variables used by non-integral terms. The integral terms always sum to an integer,
+     * so the non-integral ones must too: once these variables are assigned, the
+     * denominators must divide, or no completion can satisfy the equation.
+     */
+    public boolean[] integralityVariables() {
+        boolean[] result = new boolean[variableCount];
+        for (Term term : terms) {
+            if (!term.isIntegral()) {
+                for (int v = 0; v < variableCount; v++) {
+                    result[v] |= term.uses(v);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return terms.toString();
+    }
+
+    private static Map<Monomial, Rational> normalize(Expression expression, char[] variables) {
+        int n = variables.length;
+        if (expression instanceof Expression.Constant constant) {
+            return single(new Monomial(new int[n]), Rational.of(constant.value()));
+        }
+        if (expression instanceof Expression.Variable variable) {
+            int[] exponents = new int[n];
+            exponents[Arrays.binarySearch(variables, variable.name())] = 1;
+            return single(new Monomial(exponents), Rational.ONE);
+        }
+        if (expression instanceof Expression.Negation negation) {
+            Map<Monomial, Rational> operand = normalize(negation.operand(), variables);
+            if (operand == null) {
+                return null;
+            }
+            operand.replaceAll((monomial, coefficient) -> coefficient.negate());
+            return operand;
+        }
+        Expression.Binary binary = (Expression.Binary) expression;
+        Map<Monomial, Rational> left = normalize(binary.left(), variables);
+        Map<Monomial, Rational> right = normalize(binary.right(), variables);
+        if (left == null || right == null) {
+            return null;
+        }
+        switch (binary.operator()) {
+            case '+':
+                right.forEach((monomial, coefficient) -> left.merge(monomial, coefficient, Rational::add));
+                return left;
+            case '-':
+                right.forEach((monomial, coefficient) -> left.merge(monomial, coefficient.negate(), Rational::add));
+                return left;
+            case '*':
+                return multiply(left, right);
+            default:
+                right.values().removeIf(Rational::isZero);
+                if (right.size() != 1) {
+                    // Division by zero or by a sum: no Laurent polynomial form
+                    return null;
+                }
+                Map.Entry<Monomial, Rational> divisor = right.entrySet().iterator().next();
+                return multiply(left, single(divisor.getKey().inverse(), divisor.getValue().inverse()));
+        }
+    }
+
+    private static Map<Monomial, Rational> multiply(Map<Monomial, Rational> left, Map<Monomial, Rational> right) {
+        Map<Monomial, Rational> product = new LinkedHashMap<>();
+        left.forEach((leftMonomial, leftCoefficient) ->
+                right.forEach((rightMonomial, rightCoefficient) ->
+                        product.merge(leftMonomial.times(rightMonomial),
+                                leftCoefficient.multiply(rightCoefficient), Rational::add)));
+        return product;
+    }
+
+    private static Map<Monomial, Rational> single(Monomial monomial, Rational coefficient) {
+        Map<Monomial, Rational> map = new LinkedHashMap<>();
+        map.put(monomial, coefficient);
+        return map;
+    }
+
+    // Product of variables with (possibly negative) exponents.
+    private record Monomial(int[] exponents) {
+
+        Monomial times(Monomial other) {
+            int[] result = exponents.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] += other.exponents[i];
+            }
+            return new Monomial(result);
+        }
+
+        Monomial inverse() {
+            int[] result = exponents.clone();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = -result[i];
+            }
+            return new Monomial(result);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Monomial other && Arrays.equals(exponents, other.exponents);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(exponents);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.vietnamesepuzzle.equation;
+
+import static com.example.vietnamesepuzzle.equation.PuzzleEquation.*;
+
+/**
+ * Runs the compiled program of a {@link PuzzleEquation} with exact rational arithmetic
+ * on two preallocated {@code long} stacks (numerators and denominators).
+ * Fractions are not reduced, so no gcd is computed; an intermediate value that does not
+ * fit in 64 bits raises an {@link ArithmeticException} instead of silently overflowing.
+ * An evaluation allocates nothing. Not thread-safe.
+ * <p>
+ * This works for any equation; equations with a polynomial form use the faster
+ * {@link ScaledPolynomialEvaluator}.
+ */
+final class ProgramEvaluator implements EquationEvaluator {
+
+    private final int[] opcodes;
+    private final long[] operands;
+    private final long[] nums;
+    private final long[] dens;
+
+    ProgramEvaluator(int[] opcodes, long[] operands, int maxStackDepth) {
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.nums = new long[maxStackDepth];
+        this.dens = new long[maxStackDepth];
+    }
+
+    @Override
+    public boolean isSatisfiedBy(int[] values) {
+        int top = run(values);
+        return dens[top] != 0 && nums[top] == 0;
+    }
+
+    // Runs the program and returns the stack index of the result (lhs - rhs).
+    private int run(int[] values) {
+        int sp = -1;
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            switch (opcodes[pc]) {
+                case PUSH_CONSTANT -> {
+                    sp++;
+                    nums[sp] = operands[pc];
+                    dens[sp] = 1;
+                }
+                case PUSH_VARIABLE -> {
+                    sp++;
+                    nums[sp] = values[(int) operands[pc]];
+                    dens[sp] = 1;
+                }
+                case ADD, SUBTRACT -> {
+                    long rightNum = opcodes[pc] == ADD ? nums[sp] : -nums[sp];
+                    long rightDen = dens[sp];
+                    sp--;
+                    if (dens[sp] == rightDen) {
+                        nums[sp] = Math.addExact(nums[sp], rightNum);
+                    } else {
+                        nums[sp] = Math.addExact(Math.multiplyExact(nums[sp], rightDen),
+                                Math.multiplyExact(rightNum, dens[sp]));
+                        dens[sp] = Math.multiplyExact(dens[sp], rightDen);
+                    }
+                }
+                case MULTIPLY -> {
+                    sp--;
+                    nums[sp] = Math.multiplyExact(nums[sp], nums[sp + 1]);
+                    dens[sp] = Math.multiplyExact(dens[sp], dens[sp + 1]);
+                }
+                case DIVIDE -> {
+                    sp--;
+                    nums[sp] = Math.multiplyExact(nums[sp], dens[sp + 1]);
+                    // A zero divisor makes the denominator 0, which every later operation keeps
+                    dens[sp] = Math.multiplyExact(dens[sp], nums[sp + 1]);
+                }
+                default -> nums[sp] = -nums[sp]; // NEGATE
+            }
+        }
+        return sp;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * A puzzle equation compiled once from its text.
+ * <p>
+ * Variables are the distinct letters of the equation in alphabetical order; a value
+ * array passed to an {@link EquationEvaluator} or produced by an {@link EquationSolver}
+ * is indexed the same way (so for the Vietnamese puzzle, the attempt input order A..I).
+ * The equation {@code lhs == rhs} is compiled as the postfix program of {@code lhs - rhs},
+ * run on primitive rationals by a {@link ProgramEvaluator}. When {@code lhs - rhs} has a
+ * {@link PolynomialForm}, it is also scaled to integer coefficients for the faster
+ * {@link ScaledPolynomialEvaluator}.
+ */
+public final class PuzzleEquation {
+
+    public static final String VIETNAMESE_PUZZLE =
+            "A + 13 * B / C + D + E + 12 * F - G - 11 + H * I / G - 10 == 66";
+
+    // Opcodes of the postfix program
+    static final int PUSH_CONSTANT = 0;
+    static final int PUSH_VARIABLE = 1;
+    static final int ADD = 2;
+    static final int SUBTRACT = 3;
+    static final int MULTIPLY = 4;
+    static final int DIVIDE = 5;
+    static final int NEGATE = 6;
+
+    private final String source;
+    private final char[] variables;
+    private final int[] opcodes;
+    private final long[] operands;
+    private final int maxStackDepth;
+    private final PolynomialForm polynomial;
+    private final ScaledPolynomialEvaluator scaledEvaluator;
+
+    private PuzzleEquation(String source, char[] variables, int[] opcodes, long[] operands,
+                           int maxStackDepth, PolynomialForm polynomial, ScaledPolynomialEvaluator scaledEvaluator) {
+        this.source = source;
+        this.variables = variables;
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.maxStackDepth = maxStackDepth;
+        this.polynomial = polynomial;
+        this.scaledEvaluator = scaledEvaluator;
+    }
+
+    public static PuzzleEquation compile(String source) {
+        Expression[] sides = EquationParser.parseEquation(source);
+        Expression difference = new Expression.Binary('-', sides[0], sides[1]);
+
+        TreeSet<Character> names = new TreeSet<>();
+        collectVariables(difference, names);
+        char[] variables = new char[names.size()];
+        int i = 0;
+        for (char name : names) {
+            variables[i++] = name;
+        }
+
+        ProgramBuilder program = new ProgramBuilder(variables);
+        program.emit(difference);
+
+        PolynomialForm polynomial;
+        try {
+            polynomial = PolynomialForm.of(difference, variables).orElse(null);
+        } catch (ArithmeticException ex) {
+            // Constant division by zero or coefficients beyond 64 bits: no pruning facts
+            polynomial = null;
+        }
+        ScaledPolynomialEvaluator scaledEvaluator = null;
+        if (polynomial != null) {
+            try {
+                scaledEvaluator = ScaledPolynomialEvaluator.of(polynomial, variables.length);
+            } catch (ArithmeticException ex) {
+                // Common denominator beyond 64 bits: evaluate the program instead
+            }
+        }
+        return new PuzzleEquation(source, variables, program.opcodes(), program.operands(),
+                program.maxDepth, polynomial, scaledEvaluator);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    public char getVariable(int index) {
+        return variables[index];
+    }
+
+    // Index of a variable in value arrays, or -1 if the equation does not use it.
+    public int indexOf(char variable) {
+        int index = Arrays.binarySearch(variables, variable);
+        return index < 0 ? -1 : index;
+    }
+
+    public Optional<PolynomialForm> getPolynomial() {
+        return Optional.ofNullable(polynomial);
+    }
+
+    /**
+     * @return the fastest exact evaluator for this equation; evaluators are not thread-safe, use one per thread
+     */
+    public EquationEvaluator newEvaluator() {
+        return scaledEvaluator != null ? scaledEvaluator : newProgramEvaluator();
+    }
+
+    /**
+     * @return an evaluator running the postfix program, which handles every equation;
+     * used as the reference when checking the scaled evaluator
+     */
+    public EquationEvaluator newProgramEvaluator() {
+        return new ProgramEvaluator(opcodes, operands, maxStackDepth);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static void collectVariables(Expression expression, TreeSet<Character> names) {
+        if (expression instanceof Expression.Variable variable) {
+            names.add(variable.name());
+        } else if (expression instanceof Expression.Negation negation) {
+            collectVariables(negation.operand(), names);
+        } else if (expression instanceof Expression.Binary binary) {
+            collectVariables(binary.left(), names);
+            collectVariables(binary.right(), names);
+        }
+    }
+
+    private static final class ProgramBuilder {
+        private final char[] variables;
+        private int[] opcodes = new int[16];
+        private long[] operands = new long[16];
+        private int size;
+        private int depth;
+        private int maxDepth;
+
+        ProgramBuilder(char[] variables) {
+            this.variables = variables;
+        }
+
+        void emit(Expression expression) {
+            if (expression instanceof Expression.Constant constant) {
+                push(PUSH_CONSTANT, constant.value(), 1);
+            } else if (expression instanceof Expression.Variable variable) {
+                push(PUSH_VARIABLE, Arrays.binarySearch(variables, variable.name()), 1);
+            } else if (expression instanceof Expression.Negation negation) {
+                emit(negation.operand());
+                push(NEGATE, 0, 0);
+            } else {
+                Expression.Binary binary = (Expression.Binary) expression;
+                emit(binary.left());
+                emit(binary.right());
+                int opcode = switch (binary.operator()) {
+                    case '+' -> ADD;
+                    case '-' -> SUBTRACT;
+                    case '*' -> MULTIPLY;
+                    default -> DIVIDE;
+                };
+                push(opcode, 0, -1);
+            }
+        }
+
+        private void push(int opcode, long operand, int stackEffect) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+            }
+            opcodes[size] = opcode;
+            operands[size] = operand;
+            size++;
+            depth += stackEffect;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        int[] opcodes() {
+            return Arrays.copyOf(opcodes, size);
+        }
+
+        long[] operands() {
+            return Arrays.copyOf(operands, size);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.vietnamesepuzzle.equation;
+
+/**
+ * Exact rational in lowest terms with a positive denominator.
+ * Only used when an equation is compiled; evaluation runs on primitive longs.
+ */
+record Rational(long num, long den) {
+
+    static final Rational ZERO = new Rational(0, 1);
+    static final Rational ONE = new Rational(1, 1);
+
+    Rational {
+        if (den == 0) {
+            throw new ArithmeticException("Division by zero in equation constant");
+        }
+        long g = gcd(Math.abs(num), Math.abs(den));
+        if (den < 0) {
+            g = -g;
+        }
+        num /= g;
+        den /= g;
+    }
+
+    static Rational of(long value) {
+        return new Rational(value, 1);
+    }
+
+    Rational add(Rational other) {
+        return new Rational(Math.addExact(Math.multiplyExact(num, other.den), Math.multiplyExact(other.num, den)),
+                Math.multiplyExact(den, other.den));
+    }
+
+    Rational multiply(Rational other) {
+        return new Rational(Math.multiplyExact(num, other.num), Math.multiplyExact(den, other.den));
+    }
+
+    Rational negate() {
+        return new Rational(-num, den);
+    }
+
+    Rational inverse() {
+        return new Rational(den, num);
+    }
+
+    boolean isZero() {
+        return num == 0;
+    }
+
+    boolean isInteger() {
+        return den == 1;
+    }
+
+    @Override
+    public String toString() {
+        return den == 1 ? Long.toString(num) : num + "/" + den;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.vietnamesepuzzle.equation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks an equation with a {@link PolynomialForm} by multiplying it through by its common
+ * denominator, which turns {@code sum(terms) == 0} into an equation over integers.
+ * For the Vietnamese puzzle the denominator is {@code C * G}:
+ * <pre>
+ * A*C*G + 13*B*G + D*C*G + E*C*G + 12*F*C*G - G*C*G + H*I*C - 87*C*G == 0
+ * </pre>
+ * Evaluation is a few long multiplications and additions: no division, no gcd, no objects.
+ * Multiplying by the denominator is only an equivalence when it is not zero, so an
+ * assignment that makes a denominator variable zero is rejected first. Overflow raises an
+ * {@link ArithmeticException}. The evaluator is stateless and thread-safe.
+ */
+final class ScaledPolynomialEvaluator implements EquationEvaluator {
+
+    private final long[] coefficients;
+    private final int[] factorStart; // factors of term t are [factorStart[t], factorStart[t + 1])
+    private final int[] factorVariables; // a variable with exponent e is listed e times
+    private final int[] denominatorVariables;
+
+    private ScaledPolynomialEvaluator(long[] coefficients, int[] factorStart, int[] factorVariables,
+                                      int[] denominatorVariables) {
+        this.coefficients = coefficients;
+        this.factorStart = factorStart;
+        this.factorVariables = factorVariables;
+        this.denominatorVariables = denominatorVariables;
+    }
+
+    /**
+     * Scales every term by {@code L * X1^m1 * X2^m2 ...}, where L is the lcm of the coefficient
+     * denominators and mi the largest negative exponent of Xi, so all exponents become non-negative.
+     *
+     * @throws ArithmeticException if a scaled coefficient does not fit in 64 bits
+     */
+    static ScaledPolynomialEvaluator of(PolynomialForm polynomial, int variableCount) {
+        List<PolynomialForm.Term> terms = polynomial.getTerms();
+        int[] shifts = new int[variableCount];
+        BigInteger scale = BigInteger.ONE;
+        for (PolynomialForm.Term term : terms) {
+            for (int v = 0; v < variableCount; v++) {
+                shifts[v] = Math.max(shifts[v], -term.exponents()[v]);
+            }
+            BigInteger den = BigInteger.valueOf(term.coefficientDen());
+            scale = scale.divide(scale.gcd(den)).multiply(den);
+        }
+
+        long[] coefficients = new long[terms.size()];
+        int[] factorStart = new int[terms.size() + 1];
+        List<Integer> factors = new ArrayList<>();
+        for (int t = 0; t < terms.size(); t++) {
+            PolynomialForm.Term term = terms.get(t);
+            coefficients[t] = BigInteger.valueOf(term.coefficientNum())
+                    .multiply(scale.divide(BigInteger.valueOf(term.coefficientDen())))
+                    .longValueExact();
+            factorStart[t] = factors.size();
+            for (int v = 0; v < variableCount; v++) {
+                for (int e = 0; e < term.exponents()[v] + shifts[v]; e++) {
+                    factors.add(v);
+                }
+            }
+        }
+        factorStart[terms.size()] = factors.size();
+
+        int denominatorCount = 0;
+        for (int shift : shifts) {
+            if (shift > 0) {
+                denominatorCount++;
+            }
+        }
+        int[] denominatorVariables = new int[denominatorCount];
+        for (int v = 0, i = 0; v < variableCount; v++) {
+            if (shifts[v] > 0) {
+                denominatorVariables[i++] = v;
+            }
+        }
+        return new ScaledPolynomialEvaluator(coefficients, factorStart,
+                factors.stream().mapToInt(Integer::intValue).toArray(), denominatorVariables);
+    }
+
+    @Override
+    public boolean isSatisfiedBy(int[] values) {
+        for (int variable : denominatorVariables) {
+            if (values[variable] == 0) {
+                return false;
+            }
+        }
+        long sum = 0;
+        for (int t = 0; t < coefficients.length; t++) {
+            long term = coefficients[t];
+            for (int f = factorStart[t]; f < factorStart[t + 1]; f++) {
+                term = Math.multiplyExact(term, values[factorVariables[f]]);
+            }
+            sum = Math.addExact(sum, term);
+        }
+        return sum == 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.vietnamesepuzzle.exception;
+
+/**
+ * Client input that a service or controller rejected. {@link GlobalExceptionHandler} returns its
+ * message with a 400, so the message must be written for the client.
+ *
+ * <p>Other {@link IllegalArgumentException}s are programming or configuration errors and stay 500s.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.vietnamesepuzzle.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.Map;
 
 @Entity
 @Table(name = "attempts")
+// Second-level cache region, bounded in ehcache.xml
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Attempt.CACHE_REGION)
 public class Attempt {
 
+    public static final String CACHE_REGION = "attempts";
+
+    // Sequence ids with a pooled allocator: unlike IDENTITY, they let Hibernate batch inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attempts_seq")
+    @SequenceGenerator(name = "attempts_seq", sequenceName = "attempts_seq", allocationSize = 100)
     private Long id;
 
     // The user-entered input for the attempt.
@@ -22,6 +34,11 @@ public class Attempt {
     @JsonProperty("isCorrect")
     private Boolean correct;
 
+    // For an incorrect attempt returned by the API: the nearest solution and how to reach it. Not stored.
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> nearestSolution;
+
     // Default constructor.
     public Attempt() {
     }
@@ -57,4 +74,12 @@ public class Attempt {
     public void setCorrect(Boolean correct) {
         this.correct = correct;
     }
+
+    public Map<String, Object> getNearestSolution() {
+        return nearestSolution;
+    }
+
+    public void setNearestSolution(Map<String, Object> nearestSolution) {
+        this.nearestSolution = nearestSolution;
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.vietnamesepuzzle.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores an attempt input as its digits packed in an int (e.g. "123456789" -> 123456789).
+ * Unlike the rank, the stored value stays readable in SQL.
+ * Used by the "compact-packed" schema mode, see META-INF/orm-attempt-packed.xml.
+ */
+@Converter
+public class AttemptInputPackedConverter implements AttributeConverter<String, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(String attemptInput) {
+        if (attemptInput == null) {
+            return null;
+        }
+        if (attemptInput.length() != 9) {
+            throw new IllegalArgumentException("Not a 9-digit attempt input: " + attemptInput);
+        }
+        int packed = 0;
+        for (int i = 0; i < 9; i++) {
+            int digit = attemptInput.charAt(i) - '0';
+            if (digit < 1 || digit > 9) {
+                throw new IllegalArgumentException("Not a 9-digit attempt input: " + attemptInput);
+            }
+            packed = packed * 10 + digit;
+        }
+        return packed;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer packed) {
+        return packed == null ? null : Integer.toString(packed);
+    }
+}
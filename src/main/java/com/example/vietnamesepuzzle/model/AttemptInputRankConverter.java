@@ -0,0 +1,41 @@
+package com.example.vietnamesepuzzle.model;
+
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores an attempt input as its Lehmer rank (0..362879) instead of a 9-character string.
+ * Used by the "compact-rank" schema mode, see META-INF/orm-attempt-rank.xml.
+ */
+@Converter
+public class AttemptInputRankConverter implements AttributeConverter<String, Integer> {
+
+    private static final ThreadLocal<int[]> DIGITS = ThreadLocal.withInitial(() -> new int[9]);
+
+    @Override
+    public Integer convertToDatabaseColumn(String attemptInput) {
+        if (attemptInput == null) {
+            return null;
+        }
+        int rank = PermutationRank.rank(attemptInput);
+        if (rank < 0) {
+            throw new IllegalArgumentException("Not a permutation of the digits 1 to 9: " + attemptInput);
+        }
+        return rank;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer rank) {
+        if (rank == null) {
+            return null;
+        }
+        int[] digits = DIGITS.get();
+        PermutationRank.unrank(rank, digits);
+        char[] chars = new char[9];
+        for (int i = 0; i < 9; i++) {
+            chars[i] = (char) ('0' + digits[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.vietnamesepuzzle.repository;
+
+import com.example.vietnamesepuzzle.model.Attempt;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Batched insert path for solver output.
+ * Attempts are persisted in one transaction per call, and the persistence context is
+ * flushed and cleared every {@code batchSize} rows so it never grows past one batch.
+ * Combined with sequence ids and hibernate.jdbc.batch_size, each flush is sent as
+ * JDBC batches instead of one INSERT round trip per row.
+ * New rows are not put in the second-level cache, which would only churn it.
+ */
+@Repository
+public class AttemptBatchWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+
+    public AttemptBatchWriter(@Value("${puzzle.persistence.batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The persistence batch size must be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts new attempts without checking for existing rows.
+     *
+     * @return the number of rows written
+     */
+    @Transactional
+    public int insertAll(List<Attempt> attempts) {
+        bypassCacheUntilCompletion();
+        for (int i = 0; i < attempts.size(); i++) {
+            entityManager.persist(attempts.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return attempts.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    // READ_WRITE regions are filled when the transaction completes, so the session cache mode
+    // is only restored then (the session may outlive the transaction with open-in-view).
+    private void bypassCacheUntilCompletion() {
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        if (cacheMode == CacheMode.IGNORE) {
+            return;
+        }
+        session.setCacheMode(CacheMode.IGNORE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                session.setCacheMode(cacheMode);
+            }
+        });
+    }
+}
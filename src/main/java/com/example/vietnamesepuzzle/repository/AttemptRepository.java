@@ -1,11 +1,45 @@
 package com.example.vietnamesepuzzle.repository;
 
 import com.example.vietnamesepuzzle.model.Attempt;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface AttemptRepository extends JpaRepository<Attempt, Long> {
-    // Find an attempt by its attemptInput
+    // Find an attempt by its attemptInput, through the query cache
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Attempt> findByAttemptInput(String attemptInput);
+
+    // Number of attempts with this verdict
+    long countByCorrect(boolean correct);
+
+    // The given inputs that are already stored
+    @Query("select a.attemptInput from Attempt a where a.attemptInput in :attemptInputs")
+    List<String> findExistingAttemptInputs(@Param("attemptInputs") Collection<String> attemptInputs);
+
+    // Keyset pagination: the next attempts after a given id, in id order
+    List<Attempt> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Keyset pagination filtered on the correct flag
+    List<Attempt> findByCorrectAndIdGreaterThanOrderByIdAsc(Boolean correct, Long afterId, Limit limit);
+
+    // Cursor over all attempts (optionally filtered on the correct flag), to be consumed in a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Attempt a where :correct is null or a.correct = :correct order by a.id")
+    Stream<Attempt> streamAll(@Param("correct") Boolean correct);
 }
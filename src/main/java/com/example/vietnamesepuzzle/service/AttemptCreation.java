@@ -0,0 +1,12 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.model.Attempt;
+
+/**
+ * Outcome of an idempotent attempt creation.
+ *
+ * @param attempt the stored attempt
+ * @param created true when this call inserted it, false when the input was already stored
+ */
+public record AttemptCreation(Attempt attempt, boolean created) {
+}
@@ -1,27 +1,76 @@
 package com.example.vietnamesepuzzle.service;
 
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
 import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.AttemptBatchWriter;
 import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AttemptService {
 
     private final AttemptRepository attemptRepository;
+    private final AttemptBatchWriter attemptBatchWriter;
     private final AttemptValidation attemptValidation;
-    private final AttemptUtils attemptUtils;
-    private final PuzzleSolveService puzzleSolveService;
+    private final VerdictIndex verdictIndex;
+    private final EntityManager entityManager;
+    private final PuzzleMetrics puzzleMetrics;
+    private final AttemptStatistics attemptStatistics;
+    private final NearestSolutionIndex nearestSolutionIndex;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    // Inputs per existence query, to keep IN lists short
+    private static final int EXISTENCE_CHUNK_SIZE = 500;
+    // Existence checks and inserts of a batch before a concurrent conflict is given up on
+    private static final int BATCH_INSERT_TRIES = 3;
+
+    // Creations of inputs whose ranks share a stripe are serialized (a power of two)
+    private static final int CREATION_LOCK_STRIPES = 64;
+    private final ReentrantLock[] creationLocks = new ReentrantLock[CREATION_LOCK_STRIPES];
+    // One bit per rank submitted to createAttempt since startup: a hint that the input is stored
+    private final AtomicLongArray submittedRanks = new AtomicLongArray((PermutationRank.PERMUTATION_COUNT + 63) / 64);
 
     public AttemptService(AttemptRepository attemptRepository,
+                          AttemptBatchWriter attemptBatchWriter,
                           AttemptValidation attemptValidation,
-                          AttemptUtils attemptUtils,
-                          PuzzleSolveService puzzleSolveService) {
+                          VerdictIndex verdictIndex,
+                          EntityManager entityManager,
+                          PuzzleMetrics puzzleMetrics,
+                          AttemptStatistics attemptStatistics,
+                          NearestSolutionIndex nearestSolutionIndex) {
         this.attemptRepository = attemptRepository;
+        this.attemptBatchWriter = attemptBatchWriter;
         this.attemptValidation = attemptValidation;
-        this.attemptUtils = attemptUtils;
-        this.puzzleSolveService = puzzleSolveService;
+        this.verdictIndex = verdictIndex;
+        this.entityManager = entityManager;
+        this.puzzleMetrics = puzzleMetrics;
+        this.attemptStatistics = attemptStatistics;
+        this.nearestSolutionIndex = nearestSolutionIndex;
+        for (int i = 0; i < CREATION_LOCK_STRIPES; i++) {
+            creationLocks[i] = new ReentrantLock();
+        }
     }
 
     // Retrieve all attempts.
@@ -29,50 +78,329 @@ public class AttemptService {
         return attemptRepository.findAll();
     }
 
-    // Create a new attempt with business logic.
-    public Attempt createAttempt(Attempt attempt) {
-        // Validate that the input is correct.
-        attemptValidation.validateAttemptInput(attempt.getAttemptInput());
+    /**
+     * Retrieve one page of attempts with an id greater than {@code afterId}, in id order.
+     * Pass the id of the last attempt of a page to get the next one.
+     *
+     * @param correct optional filter on the correct flag
+     */
+    public List<Attempt> getAttemptsPage(Long afterId, int limit, Boolean correct) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("The page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        long after = afterId == null ? 0L : afterId;
+        return correct == null
+                ? attemptRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit))
+                : attemptRepository.findByCorrectAndIdGreaterThanOrderByIdAsc(correct, after, Limit.of(limit));
+    }
+
+    /**
+     * Hand every attempt (optionally filtered on the correct flag) to the consumer, in id order.
+     * Rows are read through a database cursor and detached once consumed,
+     * so memory stays constant whatever the table size.
+     */
+    @Transactional(readOnly = true)
+    public void forEachAttempt(Boolean correct, Consumer<Attempt> consumer) {
+        try (Stream<Attempt> attempts = attemptRepository.streamAll(correct)) {
+            attempts.forEach(attempt -> {
+                consumer.accept(attempt);
+                entityManager.detach(attempt);
+            });
+        }
+    }
+
+    /**
+     * Create a new attempt, or return the stored one if its input was already submitted.
+     * Creations of the same input are serialized on a lock striped by the input's rank, so
+     * concurrent duplicates wait for the first one's row instead of racing it into the unique
+     * constraint. An input seen before is looked up first (through the query cache); any other
+     * is inserted directly, in one round trip, and an insert that hits the constraint (the input
+     * was stored by a batch or the solver, for instance) returns the stored row.
+     * An incorrect attempt is returned with its nearest solution (see {@link NearestSolutionIndex}),
+     * looked up from the digits decoded with the input.
+     */
+    public AttemptCreation createAttempt(Attempt attempt) {
+        int[] digits = new int[9];
+        AttemptCreation creation = storeAttempt(attempt, digits);
+        if (!Boolean.TRUE.equals(creation.attempt().getCorrect())) {
+            creation.attempt().setNearestSolution(nearestSolutionIndex.nearest(digits));
+        }
+        return creation;
+    }
+
+    // Decodes the input into digits on the way.
+    private AttemptCreation storeAttempt(Attempt attempt, int[] digits) {
+        String attemptInput = attempt.getAttemptInput();
+        // Validate the input and look up its verdict.
+        int rank = attemptValidation.decodeAttemptInput(attemptInput, digits);
+        boolean isCorrect = verdictIndex.isCorrect(rank);
 
-        // Convert input to list of integers, evaluate correctness, set correct flag
-        boolean isCorrect = this.puzzleSolveService.evaluateExpression(
-                attemptUtils.convertStringToIntegerList(attempt.getAttemptInput())
-        );
-        attempt.setCorrect(isCorrect);
+        ReentrantLock lock = creationLocks[rank & (CREATION_LOCK_STRIPES - 1)];
+        lock.lock();
+        try {
+            long bit = 1L << rank;
+            if ((submittedRanks.get(rank >>> 6) & bit) != 0) {
+                Optional<Attempt> existing = attemptRepository.findByAttemptInput(attemptInput);
+                if (existing.isPresent()) {
+                    return new AttemptCreation(existing.get(), false);
+                }
+                // Deleted since: create it again
+            }
+            markSubmitted(rank);
 
-        return attemptRepository.save(attempt);
+            // A fresh entity: an id or verdict sent by the client must not merge over a stored row
+            Attempt saved;
+            try {
+                saved = attemptRepository.save(new Attempt(null, attemptInput, isCorrect));
+            } catch (DataIntegrityViolationException ex) {
+                return new AttemptCreation(attemptRepository.findByAttemptInput(attemptInput).orElseThrow(() -> ex),
+                        false);
+            }
+            puzzleMetrics.attemptCreated(isCorrect);
+            attemptStatistics.created(isCorrect);
+            return new AttemptCreation(saved, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Create many attempts, inserted in one transaction.
+     * Inputs are ranked and looked up in the verdict index in a single pass, existing inputs are
+     * found with a few IN queries, and the new attempts are written as JDBC batches.
+     * An invalid or duplicate input (already stored, or earlier in the same batch) is reported
+     * in its result and does not fail the batch. The creation locks of the batch's ranks are held
+     * from the existence check until the insert commits, so single creates of the same inputs wait
+     * for it. An input stored by another writer (a solve) in between rolls the insert back; the
+     * inputs are then checked again and the insert retried, up to {@value #BATCH_INSERT_TRIES}
+     * times in all.
+     *
+     * @return one result per input, in input order: a Map with keys "index" (Integer),
+     * "attemptInput" (String) and "status" (CREATED, DUPLICATE or INVALID), plus "id" (Long)
+     * and "isCorrect" (Boolean) when created, or "error" (String) otherwise
+     */
+    public List<Map<String, Object>> createAttempts(List<String> attemptInputs) {
+        if (attemptInputs.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("A batch must not have more than " + MAX_BATCH_SIZE + " attempts.");
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(attemptInputs.size());
+        // Results of the inputs that may be created, with their ranks and verdicts
+        List<Map<String, Object>> pending = new ArrayList<>();
+        List<Integer> pendingRanks = new ArrayList<>();
+        List<Boolean> pendingVerdicts = new ArrayList<>();
+        BitSet seen = new BitSet(PermutationRank.PERMUTATION_COUNT);
+        for (int i = 0; i < attemptInputs.size(); i++) {
+            String attemptInput = attemptInputs.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", i);
+            result.put("attemptInput", attemptInput);
+            results.add(result);
+
+            int rank;
+            try {
+                rank = attemptValidation.decodeAttemptInput(attemptInput, null);
+            } catch (InvalidRequestException ex) {
+                result.put("status", "INVALID");
+                result.put("error", ex.getMessage());
+                continue;
+            }
+            if (seen.get(rank)) {
+                result.put("status", "DUPLICATE");
+                result.put("error", "Duplicate attemptInput value in the batch.");
+            } else {
+                seen.set(rank);
+                pending.add(result);
+                pendingRanks.add(rank);
+                pendingVerdicts.add(verdictIndex.isCorrect(rank));
+            }
+        }
+
+        List<Attempt> created = new ArrayList<>(pending.size());
+        List<Map<String, Object>> createdResults = new ArrayList<>(pending.size());
+        long stripes = 0;
+        for (int rank : pendingRanks) {
+            stripes |= 1L << (rank & (CREATION_LOCK_STRIPES - 1));
+        }
+        lockStripes(stripes);
+        try {
+            insertNew(pending, pendingVerdicts, created, createdResults);
+            // Single creates of these inputs now look them up first, as for their own submissions
+            pendingRanks.forEach(this::markSubmitted);
+        } finally {
+            unlockStripes(stripes);
+        }
+
+        long createdCorrect = 0;
+        for (int i = 0; i < created.size(); i++) {
+            Attempt attempt = created.get(i);
+            Map<String, Object> result = createdResults.get(i);
+            // Stored at an earlier try, then deleted
+            result.remove("error");
+            result.put("status", "CREATED");
+            result.put("id", attempt.getId());
+            result.put("isCorrect", attempt.getCorrect());
+            puzzleMetrics.attemptCreated(attempt.getCorrect());
+            if (attempt.getCorrect()) {
+                createdCorrect++;
+            }
+        }
+        attemptStatistics.created(createdCorrect, created.size() - createdCorrect);
+        return results;
     }
 
     // Update an existing attempt.
     public Attempt updateAttempt(Long id, Attempt attemptDetails) {
         Attempt existingAttempt = attemptRepository.findById(id).orElse(null);
         if (existingAttempt != null) {
-            // Validate the new input
-            attemptValidation.validateAttemptInput(attemptDetails.getAttemptInput());
+            // Validate the new input and look up its verdict
+            boolean isCorrect = evaluateAttemptInput(attemptDetails.getAttemptInput());
+            boolean wasCorrect = Boolean.TRUE.equals(existingAttempt.getCorrect());
 
             existingAttempt.setAttemptInput(attemptDetails.getAttemptInput());
-            boolean isCorrect = this.puzzleSolveService.evaluateExpression(
-                    attemptUtils.convertStringToIntegerList(attemptDetails.getAttemptInput())
-            );
             existingAttempt.setCorrect(isCorrect);
 
-            return attemptRepository.save(existingAttempt);
+            Attempt saved = attemptRepository.save(existingAttempt);
+            attemptStatistics.updated(wasCorrect, isCorrect);
+            return saved;
         }
         return null;
     }
 
+    /**
+     * The solution nearest to an attempt input, see {@link NearestSolutionIndex#nearest(int[])}.
+     *
+     * @throws InvalidRequestException when the input is not a valid attempt
+     */
+    public Map<String, Object> findNearestSolution(String attemptInput) {
+        int[] digits = new int[9];
+        attemptValidation.decodeAttemptInput(attemptInput, digits);
+        return nearestSolutionIndex.nearest(digits);
+    }
+
     // Retrieve an attempt by its id.
     public Attempt getAttemptById(Long id) {
         return attemptRepository.findById(id).orElse(null);
     }
 
-    // Delete an attempt by its id.
+    // Delete an attempt by its id (read first, through the cache, for its verdict).
     public void deleteAttempt(Long id) {
-        attemptRepository.deleteById(id);
+        attemptRepository.findById(id).ifPresent(attempt -> {
+            attemptRepository.delete(attempt);
+            attemptStatistics.deleted(Boolean.TRUE.equals(attempt.getCorrect()));
+        });
     }
 
-    // Delete all attempts.
+    // Delete all attempts with one bulk delete; Hibernate then evicts the whole attempt cache region.
     public void deleteAllAttempts() {
-        attemptRepository.deleteAll();
+        attemptRepository.deleteAllInBatch();
+        attemptStatistics.reconcile();
+    }
+
+    // Attempt counts and creation rate, see AttemptStatistics#getStatistics().
+    public Map<String, Object> getStatistics() {
+        return attemptStatistics.getStatistics();
+    }
+
+    /**
+     * Second-level cache statistics of the attempt entity region and of the query cache.
+     *
+     * @return a Map with keys "statisticsEnabled" (Boolean), "entity" and "query", each a Map with keys
+     * "hits", "misses", "puts" (Long) and "hitRate" (Double, null before the first lookup)
+     */
+    public Map<String, Object> getCacheStatistics() {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Attempt.CACHE_REGION);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("entity", region == null ? cacheCounts(0, 0, 0)
+                : cacheCounts(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+        result.put("query", cacheCounts(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        return result;
+    }
+
+    private static Map<String, Object> cacheCounts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRate", hits + misses == 0 ? null : (double) hits / (hits + misses));
+        return counts;
+    }
+
+    // Inserts the pending inputs that are not stored yet, reporting the others as duplicates;
+    // fills created and createdResults with the inserted attempts and their results.
+    private void insertNew(List<Map<String, Object>> pending, List<Boolean> pendingVerdicts,
+                           List<Attempt> created, List<Map<String, Object>> createdResults) {
+        for (int tries = 1; ; tries++) {
+            Set<String> existing = findExistingAttemptInputs(pending);
+            created.clear();
+            createdResults.clear();
+            for (int i = 0; i < pending.size(); i++) {
+                Map<String, Object> result = pending.get(i);
+                String attemptInput = (String) result.get("attemptInput");
+                if (existing.contains(attemptInput)) {
+                    result.put("status", "DUPLICATE");
+                    result.put("error", "Duplicate attemptInput value is not allowed.");
+                } else {
+                    // Fresh entities on every try: a rolled back insert leaves ids on the previous ones
+                    created.add(new Attempt(null, attemptInput, pendingVerdicts.get(i)));
+                    createdResults.add(result);
+                }
+            }
+            try {
+                attemptBatchWriter.insertAll(created);
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // Stored concurrently since the existence check
+                if (tries == BATCH_INSERT_TRIES) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    // Locks the creation stripes set in the mask, in stripe order so that batches cannot deadlock.
+    private void lockStripes(long stripes) {
+        for (int stripe = 0; stripe < CREATION_LOCK_STRIPES; stripe++) {
+            if ((stripes & (1L << stripe)) != 0) {
+                creationLocks[stripe].lock();
+            }
+        }
+    }
+
+    private void unlockStripes(long stripes) {
+        for (int stripe = CREATION_LOCK_STRIPES - 1; stripe >= 0; stripe--) {
+            if ((stripes & (1L << stripe)) != 0) {
+                creationLocks[stripe].unlock();
+            }
+        }
+    }
+
+    private void markSubmitted(int rank) {
+        submittedRanks.getAndAccumulate(rank >>> 6, 1L << rank, (word, mask) -> word | mask);
+    }
+
+    // The inputs of the given batch results that are already stored.
+    private Set<String> findExistingAttemptInputs(List<Map<String, Object>> results) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(EXISTENCE_CHUNK_SIZE);
+        for (int i = 0; i < results.size(); i++) {
+            chunk.add((String) results.get(i).get("attemptInput"));
+            if (chunk.size() == EXISTENCE_CHUNK_SIZE || i == results.size() - 1) {
+                existing.addAll(attemptRepository.findExistingAttemptInputs(chunk));
+                chunk.clear();
+            }
+        }
+        return existing;
+    }
+
+    // Validates and ranks the input in one pass, then reads its verdict from the index.
+    private boolean evaluateAttemptInput(String attemptInput) {
+        return verdictIndex.isCorrect(attemptValidation.decodeAttemptInput(attemptInput, null));
     }
 }
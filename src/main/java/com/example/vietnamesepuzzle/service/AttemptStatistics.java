@@ -0,0 +1,124 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attempt counts kept in memory, so reading them never scans the table.
+ * <p>
+ * Every write path (API creates, updates and deletes, batches, solves) reports its change here;
+ * the counts are then set from the database with two count queries at startup and after each
+ * delete of all attempts. Changes made while a reconciliation runs, or by concurrent updates
+ * of the same attempt, may leave the counts off by a few until the next one.
+ * <p>
+ * The creation rate is the number of attempts created over the last {@value #RATE_WINDOW_SECONDS}
+ * seconds, counted in one bucket per second.
+ */
+@Component
+public class AttemptStatistics {
+
+    public static final int RATE_WINDOW_SECONDS = 60;
+
+    private final AttemptRepository attemptRepository;
+
+    private final LongAdder correct = new LongAdder();
+    private final LongAdder incorrect = new LongAdder();
+    // Attempts created since startup, never reset
+    private final LongAdder created = new LongAdder();
+    // Creations per second: bucket second % RATE_WINDOW_SECONDS, and the second it counts
+    private final LongAdder[] rateBuckets = new LongAdder[RATE_WINDOW_SECONDS];
+    private final AtomicLongArray bucketSeconds = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private volatile Instant reconciledAt;
+
+    public AttemptStatistics(AttemptRepository attemptRepository) {
+        this.attemptRepository = attemptRepository;
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            rateBuckets[i] = new LongAdder();
+            bucketSeconds.set(i, -1);
+        }
+    }
+
+    // Sets the counts from the database.
+    @PostConstruct
+    public void reconcile() {
+        long storedCorrect = attemptRepository.countByCorrect(true);
+        long storedIncorrect = attemptRepository.countByCorrect(false);
+        correct.reset();
+        correct.add(storedCorrect);
+        incorrect.reset();
+        incorrect.add(storedIncorrect);
+        reconciledAt = Instant.now();
+    }
+
+    // Attempts stored.
+    public void created(long correctCount, long incorrectCount) {
+        correct.add(correctCount);
+        incorrect.add(incorrectCount);
+        long count = correctCount + incorrectCount;
+        created.add(count);
+        rateBucket(System.currentTimeMillis() / 1000).add(count);
+    }
+
+    public void created(boolean isCorrect) {
+        created(isCorrect ? 1 : 0, isCorrect ? 0 : 1);
+    }
+
+    // A stored attempt whose verdict went from wasCorrect to isCorrect.
+    public void updated(boolean wasCorrect, boolean isCorrect) {
+        if (wasCorrect != isCorrect) {
+            (wasCorrect ? correct : incorrect).decrement();
+            (isCorrect ? correct : incorrect).increment();
+        }
+    }
+
+    public void deleted(boolean wasCorrect) {
+        (wasCorrect ? correct : incorrect).decrement();
+    }
+
+    /**
+     * @return a Map with keys "total", "correct", "incorrect" (Long), "createdSinceStartup" (Long),
+     * "createdPerSecond" (Double, over the last "rateWindowSeconds") and "reconciledAt" (ISO-8601 String)
+     */
+    public Map<String, Object> getStatistics() {
+        long correctCount = correct.sum();
+        long incorrectCount = incorrect.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", correctCount + incorrectCount);
+        result.put("correct", correctCount);
+        result.put("incorrect", incorrectCount);
+        result.put("createdSinceStartup", created.sum());
+        result.put("createdPerSecond", (double) recentlyCreated(System.currentTimeMillis() / 1000)
+                / RATE_WINDOW_SECONDS);
+        result.put("rateWindowSeconds", RATE_WINDOW_SECONDS);
+        result.put("reconciledAt", reconciledAt == null ? null : reconciledAt.toString());
+        return result;
+    }
+
+    // The bucket of this second, emptied first if it still holds an older second.
+    private LongAdder rateBucket(long second) {
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        long bucketSecond = bucketSeconds.get(slot);
+        if (bucketSecond != second && bucketSeconds.compareAndSet(slot, bucketSecond, second)) {
+            // A creation counted by another thread between the two calls may be lost: the rate is approximate
+            rateBuckets[slot].reset();
+        }
+        return rateBuckets[slot];
+    }
+
+    private long recentlyCreated(long now) {
+        long sum = 0;
+        for (int slot = 0; slot < RATE_WINDOW_SECONDS; slot++) {
+            if (now - bucketSeconds.get(slot) < RATE_WINDOW_SECONDS) {
+                sum += rateBuckets[slot].sum();
+            }
+        }
+        return sum;
+    }
+}
@@ -29,4 +29,15 @@ public class AttemptUtils {
         }
         return sb.toString();
     }
+
+    /**
+     * Converts an array of digits to a concatenated string (e.g. [1,2,3] -> '123').
+     */
+    public String convertArrayToString(int[] digits) {
+        char[] chars = new char[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            chars[i] = (char) ('0' + digits[i]);
+        }
+        return new String(chars);
+    }
 }
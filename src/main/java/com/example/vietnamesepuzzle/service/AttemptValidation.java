@@ -1,36 +1,53 @@
 package com.example.vietnamesepuzzle.service;
 
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
-
 @Service
 public class AttemptValidation {
 
     public void validateAttemptInput(String attemptInput) {
-        if (attemptInput == null || attemptInput.trim().isEmpty()) {
-            throw new IllegalArgumentException("The attempt input must not be empty.");
+        decodeAttemptInput(attemptInput, null);
+    }
+
+    /**
+     * Validates an attempt input and decodes it in a single pass over its characters, with
+     * {@link PermutationRank#decode(String, int[])}. Nothing is allocated unless the input is
+     * invalid; only then is it scanned again for the error message.
+     *
+     * @param digits receives the 9 digits when not null
+     * @return the permutation rank of the input
+     * @throws InvalidRequestException with the same messages as {@link #validateAttemptInput(String)}
+     */
+    public int decodeAttemptInput(String attemptInput, int[] digits) {
+        int rank = PermutationRank.decode(attemptInput, digits);
+        if (rank < 0) {
+            throw invalid(attemptInput);
         }
+        return rank;
+    }
 
-        // Check length
+    // The checks are reported in order: empty input, then length, then the first bad character.
+    private static InvalidRequestException invalid(String attemptInput) {
+        if (attemptInput == null || attemptInput.trim().isEmpty()) {
+            return new InvalidRequestException("The attempt input must not be empty.");
+        }
         if (attemptInput.length() != 9) {
-            throw new IllegalArgumentException("The attempt input must have exactly 9 characters.");
+            return new InvalidRequestException("The attempt input must have exactly 9 characters.");
         }
-
-        // Check digits are between '1'..'9', and are unique
-        Set<Character> seen = new HashSet<>();
-        for (char c : attemptInput.toCharArray()) {
-            if (c < '1' || c > '9') {
-                throw new IllegalArgumentException(
-                        "All characters must be digits between 1 and 9. Invalid char: " + c
-                );
+        int seen = 0;
+        for (int i = 0; i < 9; i++) {
+            char c = attemptInput.charAt(i);
+            int digit = c - '0';
+            if (digit < 1 || digit > 9) {
+                return new InvalidRequestException(
+                        "All characters must be digits between 1 and 9. Invalid char: " + c);
             }
-            if (!seen.add(c)) {
-                throw new IllegalArgumentException(
-                        "Duplicate digit detected in attempt input: " + c
-                );
+            if ((seen & (1 << digit)) != 0) {
+                return new InvalidRequestException("Duplicate digit detected in attempt input: " + c);
             }
+            seen |= 1 << digit;
         }
+        return new InvalidRequestException("Invalid attempt input: " + attemptInput);
     }
 }
@@ -0,0 +1,88 @@
+package com.example.vietnamesepuzzle.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight front of {@link PuzzleSolveService#generateSolutions(SolveMode, SolveProgress)}
+ * for POST /api/attempts/solutions.
+ * <p>
+ * The first caller of a mode runs the solve; callers arriving while it runs wait for it and
+ * get the same result instead of clearing the table and solving again. With
+ * {@code puzzle.solutions.result-ttl-ms} above 0, a result is also handed to the callers of
+ * its mode for that long after the solve ends, so a burst of requests costs one solve.
+ * A cached result describes the solve that produced it, even if attempts changed since.
+ */
+@Service
+public class CoalescingSolveService {
+
+    private final PuzzleSolveService puzzleSolveService;
+    private final long resultTtlNanos;
+
+    private final ConcurrentMap<SolveMode, CompletableFuture<Map<String, Object>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<SolveMode, CachedResult> results = new ConcurrentHashMap<>();
+
+    public CoalescingSolveService(PuzzleSolveService puzzleSolveService,
+                                  @Value("${puzzle.solutions.result-ttl-ms:0}") long resultTtlMs) {
+        this.puzzleSolveService = puzzleSolveService;
+        this.resultTtlNanos = resultTtlMs * 1_000_000;
+    }
+
+    /**
+     * Solves in the given mode, or joins the solve of that mode already running.
+     *
+     * @return the (unmodifiable) result of {@link PuzzleSolveService#generateSolutions(SolveMode, SolveProgress)},
+     * shared by every caller of the same solve
+     */
+    public Map<String, Object> generateSolutions(SolveMode mode) {
+        CachedResult cached = results.get(mode);
+        if (cached != null && System.nanoTime() - cached.completedAt() < resultTtlNanos) {
+            return cached.result();
+        }
+
+        CompletableFuture<Map<String, Object>> solve = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> running = inFlight.putIfAbsent(mode, solve);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            Map<String, Object> result = Collections.unmodifiableMap(
+                    new HashMap<>(puzzleSolveService.generateSolutions(mode, new SolveProgress())));
+            if (resultTtlNanos > 0) {
+                results.put(mode, new CachedResult(result, System.nanoTime()));
+            }
+            solve.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            solve.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            // Callers arriving from now on start a new solve (or read the cached result)
+            inFlight.remove(mode, solve);
+        }
+    }
+
+    // Waits for another caller's solve; its failure is rethrown as is.
+    private static Map<String, Object> join(CompletableFuture<Map<String, Object>> solve) {
+        try {
+            return solve.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record CachedResult(Map<String, Object> result, long completedAt) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.vietnamesepuzzle.service;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends shards to another instance of this application, through its
+ * POST /api/attempts/solutions/shards route.
+ */
+public class HttpShardWorker implements ShardWorker {
+
+    private final String baseUrl;
+    private final RestClient restClient;
+
+    public HttpShardWorker(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl;
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().baseUrl(baseUrl).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String getName() {
+        return baseUrl;
+    }
+
+    @Override
+    public List<String> solve(int fromRank, int toRank) {
+        Map<String, Object> result = restClient.post()
+                .uri("/api/attempts/solutions/shards?fromRank={from}&toRank={to}", fromRank, toRank)
+                .retrieve()
+                .body(new ParameterizedTypeReference<Map<String, Object>>() {
+                });
+        if (result == null || !(result.get("solutions") instanceof List<?> solutions)) {
+            throw new IllegalStateException("No solutions in the response of " + baseUrl);
+        }
+        return solutions.stream().map(String::valueOf).toList();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.vietnamesepuzzle.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the solution closest to a wrong attempt: the one reached with the fewest swaps of two
+ * letters' digits (the Cayley distance between the two permutations), the lowest rank on a tie.
+ * <p>
+ * The solutions of the {@link VerdictIndex} are kept in a BK-tree under that distance, which is
+ * a metric taking values 0..8: a child hangs off its parent by their distance, and the triangle
+ * inequality lets a search skip every subtree whose edge differs from the query's distance to the
+ * parent by more than the best distance found so far. No query scans the permutations, and the
+ * tree keeps lookups cheap should the configured equation have many more solutions.
+ */
+@Service
+public class NearestSolutionIndex {
+
+    private static final int LETTERS = 9;
+
+    private final VerdictIndex verdictIndex;
+    private Node root;
+
+    public NearestSolutionIndex(VerdictIndex verdictIndex) {
+        this.verdictIndex = verdictIndex;
+    }
+
+    // A solution, its children by distance, and where each digit sits in it (positions[digit]).
+    private static final class Node {
+        final String solution;
+        final int rank;
+        final int[] positions = new int[LETTERS + 1];
+        final Node[] children = new Node[LETTERS];
+
+        Node(String solution) {
+            this.solution = solution;
+            this.rank = PermutationRank.rank(solution);
+            for (int i = 0; i < LETTERS; i++) {
+                positions[solution.charAt(i) - '0'] = i;
+            }
+        }
+    }
+
+    @PostConstruct
+    public void build() {
+        // Inserted in rank order, so the tree does not depend on the solver's order
+        List<String> solutions = verdictIndex.getSolutions().stream()
+                .sorted(Comparator.comparingInt(PermutationRank::rank))
+                .toList();
+        Node tree = null;
+        int[] digits = new int[LETTERS];
+        int[] scratch = new int[LETTERS];
+        for (String solution : solutions) {
+            Node node = new Node(solution);
+            if (tree == null) {
+                tree = node;
+                continue;
+            }
+            for (int i = 0; i < LETTERS; i++) {
+                digits[i] = solution.charAt(i) - '0';
+            }
+            Node parent = tree;
+            while (true) {
+                int distance = swapDistance(digits, parent, scratch);
+                if (parent.children[distance] == null) {
+                    parent.children[distance] = node;
+                    break;
+                }
+                parent = parent.children[distance];
+            }
+        }
+        root = tree;
+    }
+
+    /**
+     * The nearest solution to an attempt, and the swaps that turn the attempt into it.
+     *
+     * @param digits the 9 digits of a valid attempt input (see {@link AttemptValidation#decodeAttemptInput})
+     * @return a Map with keys "solution" (String), "swapDistance" and "kendallTauDistance" (Integer, the
+     * number of adjacent swaps), "positions" (List of the letters whose digit changes) and "swaps" (List
+     * of two-letter Lists, applied in order); null when no solution is known
+     */
+    public Map<String, Object> nearest(int[] digits) {
+        if (root == null) {
+            return null;
+        }
+        Search search = new Search(digits);
+        search.visit(root);
+        return describe(digits, search.best, search.bestDistance);
+    }
+
+    // Depth-first state of one lookup.
+    private static final class Search {
+        final int[] digits;
+        final int[] scratch = new int[LETTERS];
+        Node best;
+        int bestDistance = Integer.MAX_VALUE;
+
+        Search(int[] digits) {
+            this.digits = digits;
+        }
+
+        void visit(Node node) {
+            int distance = swapDistance(digits, node, scratch);
+            if (distance < bestDistance || (distance == bestDistance && node.rank < best.rank)) {
+                best = node;
+                bestDistance = distance;
+            }
+            // Only children at |edge - distance| <= bestDistance can hold a solution as close
+            for (int edge = Math.max(1, distance - bestDistance);
+                 edge <= Math.min(LETTERS - 1, distance + bestDistance); edge++) {
+                Node child = node.children[edge];
+                // The best distance may have shrunk while visiting the previous children
+                if (child != null && Math.abs(edge - distance) <= bestDistance) {
+                    visit(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Minimum number of swaps turning the digits into the node's solution: 9 minus the number of
+     * cycles of the permutation sending each position to where its digit sits in the solution.
+     */
+    private static int swapDistance(int[] digits, Node node, int[] scratch) {
+        for (int i = 0; i < LETTERS; i++) {
+            scratch[i] = node.positions[digits[i]];
+        }
+        int cycles = 0;
+        for (int i = 0; i < LETTERS; i++) {
+            if (scratch[i] >= 0) {
+                cycles++;
+                int j = i;
+                while (scratch[j] >= 0) {
+                    int next = scratch[j];
+                    scratch[j] = -1;
+                    j = next;
+                }
+            }
+        }
+        return LETTERS - cycles;
+    }
+
+    private static Map<String, Object> describe(int[] digits, Node best, int distance) {
+        int[] target = new int[LETTERS];
+        // Where each position's digit goes in the solution, for the Kendall tau distance
+        int[] moved = new int[LETTERS];
+        List<String> positions = new ArrayList<>();
+        for (int i = 0; i < LETTERS; i++) {
+            target[i] = best.solution.charAt(i) - '0';
+            moved[i] = best.positions[digits[i]];
+            if (digits[i] != target[i]) {
+                positions.add(letter(i));
+            }
+        }
+        int inversions = 0;
+        for (int i = 0; i < LETTERS; i++) {
+            for (int j = i + 1; j < LETTERS; j++) {
+                if (moved[i] > moved[j]) {
+                    inversions++;
+                }
+            }
+        }
+
+        // Put the right digit at each position in turn: every swap fixes at least one position
+        int[] current = digits.clone();
+        List<List<String>> swaps = new ArrayList<>(distance);
+        for (int i = 0; i < LETTERS; i++) {
+            if (current[i] != target[i]) {
+                int j = i + 1;
+                while (current[j] != target[i]) {
+                    j++;
+                }
+                current[j] = current[i];
+                current[i] = target[i];
+                swaps.add(List.of(letter(i), letter(j)));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("solution", best.solution);
+        result.put("swapDistance", distance);
+        result.put("kendallTauDistance", inversions);
+        result.put("positions", positions);
+        result.put("swaps", swaps);
+        return result;
+    }
+
+    private static String letter(int position) {
+        return String.valueOf((char) ('A' + position));
+    }
+}
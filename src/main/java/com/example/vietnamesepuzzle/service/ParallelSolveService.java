@@ -0,0 +1,166 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.equation.EquationSolver;
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Enumerates every solution of the puzzle equation on a ForkJoin pool.
+ * <p>
+ * The search space is split on the first two variables of the {@link EquationSolver}
+ * search order ((B, C) for the default equation, whose non-integral terms use
+ * B, C, G, H and I): one task per pair of values, each task searching the rest
+ * sequentially. Results are merged in task order, so the solution list is the same
+ * for every parallelism level. Nothing is written to the database.
+ * <p>
+ * A request may ask for another parallelism level, up to {@code puzzle.solver.max-parallelism}.
+ * The pool of each level is created on first use and kept until shutdown, so there are at
+ * most that many pools whatever the requests.
+ */
+@Service
+public class ParallelSolveService {
+
+    private static final int[] DIGITS = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    private final AttemptUtils attemptUtils;
+    private final PuzzleEquation puzzleEquation;
+    private final ForkJoinPool pool;
+    private final int maxParallelism;
+    // Pools by parallelism level, the configured one included
+    private final ConcurrentMap<Integer, ForkJoinPool> pools = new ConcurrentHashMap<>();
+
+    public ParallelSolveService(AttemptUtils attemptUtils,
+                                PuzzleEquation puzzleEquation,
+                                @Value("${puzzle.solver.parallelism:0}") int parallelism,
+                                @Value("${puzzle.solver.max-parallelism:0}") int maxParallelism) {
+        this.attemptUtils = attemptUtils;
+        this.puzzleEquation = puzzleEquation;
+        this.pool = new ForkJoinPool(resolveParallelism(parallelism));
+        // The configured level is always allowed
+        this.maxParallelism = Math.max(resolveParallelism(maxParallelism), pool.getParallelism());
+        pools.put(pool.getParallelism(), pool);
+    }
+
+    /**
+     * Finds all solutions using the configured pool.
+     *
+     * @return a Map with keys "solutions" (List of String), "count" (Integer),
+     * "parallelism" (Integer) and "durationMs" (Long)
+     */
+    public Map<String, Object> generateAllSolutions() {
+        return generateAllSolutions(null);
+    }
+
+    /**
+     * Finds all solutions, on the pool of the requested parallelism level (the configured
+     * pool when null).
+     *
+     * @throws InvalidRequestException for a negative level or one above the maximum
+     */
+    public Map<String, Object> generateAllSolutions(Integer parallelism) {
+        ForkJoinPool levelPool = parallelism == null ? pool : poolFor(resolveParallelism(parallelism));
+        long startTime = System.currentTimeMillis();
+
+        List<String> solutions = findAllSolutions(levelPool);
+        int usedParallelism = levelPool.getParallelism();
+
+        long duration = System.currentTimeMillis() - startTime;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("solutions", solutions);
+        result.put("count", solutions.size());
+        result.put("parallelism", usedParallelism);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    // All solutions, in the lexicographic order of their values along the solver's search order.
+    public List<String> findAllSolutions() {
+        return findAllSolutions(pool);
+    }
+
+    private List<String> findAllSolutions(ForkJoinPool forkJoinPool) {
+        return forkJoinPool.invoke(new RootTask());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(ForkJoinPool::shutdown);
+    }
+
+    private ForkJoinPool poolFor(int parallelism) {
+        if (parallelism > maxParallelism) {
+            throw new InvalidRequestException(
+                    "The parallelism level must be between 0 and " + maxParallelism + ".");
+        }
+        return pools.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    private static int resolveParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new InvalidRequestException("The parallelism level must not be negative.");
+        }
+        return parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    // Forks one PrefixTask per value pair of the first two search variables and concatenates their results in order.
+    private class RootTask extends RecursiveTask<List<String>> {
+
+        @Override
+        protected List<String> compute() {
+            int prefixLength = Math.min(2, puzzleEquation.getVariableCount());
+            List<PrefixTask> tasks = new ArrayList<>();
+            if (prefixLength < 2) {
+                tasks.add(new PrefixTask(new int[0], 0));
+            } else {
+                for (int first : DIGITS) {
+                    for (int second : DIGITS) {
+                        if (first != second) {
+                            tasks.add(new PrefixTask(new int[]{first, second}, 2));
+                        }
+                    }
+                }
+            }
+            invokeAll(tasks);
+
+            List<String> solutions = new ArrayList<>();
+            for (PrefixTask task : tasks) {
+                solutions.addAll(task.join());
+            }
+            return solutions;
+        }
+    }
+
+    private class PrefixTask extends RecursiveTask<List<String>> {
+
+        private final int[] prefix;
+        private final int prefixLength;
+
+        PrefixTask(int[] prefix, int prefixLength) {
+            this.prefix = prefix;
+            this.prefixLength = prefixLength;
+        }
+
+        @Override
+        protected List<String> compute() {
+            List<String> solutions = new ArrayList<>();
+            new EquationSolver(puzzleEquation, DIGITS).forEachSolution(prefix, prefixLength, values -> {
+                solutions.add(attemptUtils.convertArrayToString(values));
+                return true;
+            });
+            return solutions;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.vietnamesepuzzle.service;
+
+/**
+ * Reusable cursor over the k-permutations of an int pool, in lexicographic order
+ * of the pool positions (so a sorted pool yields sorted permutations).
+ * <p>
+ * All buffers are allocated once in the constructor: {@link #reset} and {@link #next}
+ * allocate nothing, which keeps the solver hot loops free of GC churn.
+ * A cursor is not thread-safe; use one instance per thread.
+ */
+public final class PermutationCursor {
+
+    // Pools are tracked with an int bitmask, so at most 31 elements.
+    public static final int MAX_POOL_SIZE = 31;
+
+    private final int[] pool;
+    private final int[] indices; // pool index chosen for each slot
+    private final int[] values;  // pool value chosen for each slot
+    private int n;
+    private int k;
+    private int usedMask;
+    private boolean started;
+    private boolean exhausted;
+
+    public PermutationCursor(int capacity) {
+        if (capacity < 0 || capacity > MAX_POOL_SIZE) {
+            throw new IllegalArgumentException("Capacity must be between 0 and " + MAX_POOL_SIZE);
+        }
+        this.pool = new int[capacity];
+        this.indices = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Restarts the cursor over the k-permutations of the first {@code n} values of {@code source}.
+     * The values are copied, so the caller may reuse {@code source} afterwards.
+     */
+    public PermutationCursor reset(int[] source, int n, int k) {
+        if (n > pool.length || k > n || k < 0) {
+            throw new IllegalArgumentException("Invalid permutation size: n=" + n + ", k=" + k);
+        }
+        System.arraycopy(source, 0, pool, 0, n);
+        this.n = n;
+        this.k = k;
+        this.usedMask = 0;
+        this.started = false;
+        this.exhausted = false;
+        return this;
+    }
+
+    /**
+     * Advances to the next permutation.
+     *
+     * @return false once every permutation has been visited
+     */
+    public boolean next() {
+        if (exhausted) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            fillFrom(0);
+            return true;
+        }
+        for (int slot = k - 1; slot >= 0; slot--) {
+            int current = indices[slot];
+            usedMask &= ~(1 << current);
+            int candidate = nextFree(current + 1);
+            if (candidate < n) {
+                take(slot, candidate);
+                fillFrom(slot + 1);
+                return true;
+            }
+        }
+        exhausted = true;
+        return false;
+    }
+
+    // Value at the given slot of the current permutation.
+    public int get(int slot) {
+        return values[slot];
+    }
+
+    public int size() {
+        return k;
+    }
+
+    /**
+     * Live view of the current permutation; only the first {@link #size()} entries are meaningful.
+     * The array is overwritten by the next call to {@link #next()}.
+     */
+    public int[] values() {
+        return values;
+    }
+
+    // Copies the values of the pool that the current permutation did not pick into target.
+    public int unused(int[] target) {
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if ((usedMask & (1 << i)) == 0) {
+                target[count++] = pool[i];
+            }
+        }
+        return count;
+    }
+
+    private void fillFrom(int slot) {
+        for (int s = slot; s < k; s++) {
+            take(s, nextFree(0));
+        }
+    }
+
+    private void take(int slot, int index) {
+        indices[slot] = index;
+        values[slot] = pool[index];
+        usedMask |= 1 << index;
+    }
+
+    private int nextFree(int from) {
+        int i = from;
+        while (i < n && (usedMask & (1 << i)) != 0) {
+            i++;
+        }
+        return i;
+    }
+}
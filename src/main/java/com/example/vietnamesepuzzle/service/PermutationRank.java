@@ -0,0 +1,89 @@
+package com.example.vietnamesepuzzle.service;
+
+/**
+ * Lehmer-code ranking of permutations of the digits 1..9.
+ * Ranks follow lexicographic order: "123456789" is 0 and "987654321" is 9! - 1.
+ */
+public final class PermutationRank {
+
+    public static final int PERMUTATION_COUNT = 362880; // 9!
+
+    private static final int[] FACTORIALS = {40320, 5040, 720, 120, 24, 6, 2, 1, 1}; // (8-i)!
+
+    private PermutationRank() {
+    }
+
+    /**
+     * Ranks a 9-character attempt input in a single pass.
+     *
+     * @return the rank, or -1 if the input is not a permutation of the digits 1..9
+     */
+    public static int rank(String attemptInput) {
+        return decode(attemptInput, null);
+    }
+
+    /**
+     * Ranks a 9-character attempt input in a single pass, checking its length, the 1..9 range
+     * and the uniqueness of its digits (tracked in a 9-bit mask) on the way. Allocates nothing.
+     *
+     * @param digits receives the 9 digits when not null (partly written for an invalid input)
+     * @return the rank, or -1 if the input is not a permutation of the digits 1..9
+     */
+    public static int decode(String attemptInput, int[] digits) {
+        if (attemptInput == null || attemptInput.length() != 9) {
+            return -1;
+        }
+        int seen = 0;
+        int rank = 0;
+        for (int i = 0; i < 9; i++) {
+            int digit = attemptInput.charAt(i) - '0';
+            if (digit < 1 || digit > 9 || (seen & (1 << digit)) != 0) {
+                return -1;
+            }
+            // Number of smaller digits still available at this position
+            rank += (digit - 1 - Integer.bitCount(seen & ((1 << digit) - 1))) * FACTORIALS[i];
+            seen |= 1 << digit;
+            if (digits != null) {
+                digits[i] = digit;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Ranks a permutation of the digits 1..9 held in the first 9 entries of {@code digits}.
+     * The input is assumed to be valid.
+     */
+    public static int rank(int[] digits) {
+        int seen = 0;
+        int rank = 0;
+        for (int i = 0; i < 9; i++) {
+            int digit = digits[i];
+            rank += (digit - 1 - Integer.bitCount(seen & ((1 << digit) - 1))) * FACTORIALS[i];
+            seen |= 1 << digit;
+        }
+        return rank;
+    }
+
+    /**
+     * Writes the permutation with the given rank into the first 9 entries of {@code digits}.
+     */
+    public static void unrank(int rank, int[] digits) {
+        if (rank < 0 || rank >= PERMUTATION_COUNT) {
+            throw new IllegalArgumentException("Rank out of range: " + rank);
+        }
+        int available = 0b1111111110; // digits 1..9
+        for (int i = 0; i < 9; i++) {
+            int index = rank / FACTORIALS[i];
+            rank %= FACTORIALS[i];
+            // Drop the lowest free digits until the index-th one is the lowest
+            int bits = available;
+            for (int skip = 0; skip < index; skip++) {
+                bits &= bits - 1;
+            }
+            int digit = Integer.numberOfTrailingZeros(bits);
+            digits[i] = digit;
+            available &= ~(1 << digit);
+        }
+    }
+}
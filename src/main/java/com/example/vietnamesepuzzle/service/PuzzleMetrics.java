@@ -0,0 +1,106 @@
+package com.example.vietnamesepuzzle.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters, exported with the HTTP route timers on /actuator/prometheus.
+ * <p>
+ * Meters are registered once here, so recording is a field read and an add. With
+ * {@code puzzle.metrics.enabled=false} nothing is registered and every method returns
+ * immediately; the solver also skips its per-candidate clock reads (see {@link #isEnabled()}).
+ */
+@Component
+public class PuzzleMetrics {
+
+    public static final String ATTEMPTS_STORED = "puzzle.attempts.stored";
+    public static final String SOLVER_CANDIDATES = "puzzle.solver.candidates";
+    public static final String SOLVER_PHASE = "puzzle.solver.phase";
+
+    // Solver phases: building candidates, evaluating them, and writing them to the database
+    public enum Phase {
+        PERMUTATIONS, EVALUATION, PERSISTENCE
+    }
+
+    private final boolean enabled;
+
+    private Counter apiCorrect;
+    private Counter apiIncorrect;
+    private Counter solverCorrect;
+    private Counter solverIncorrect;
+    private Counter candidatesEvaluated;
+    private Counter candidatesPruned;
+    private final Timer[] phaseTimers = new Timer[Phase.values().length];
+
+    public PuzzleMetrics(MeterRegistry registry,
+                         @Value("${puzzle.metrics.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            return;
+        }
+        apiCorrect = attemptsCreated(registry, "api", true);
+        apiIncorrect = attemptsCreated(registry, "api", false);
+        solverCorrect = attemptsCreated(registry, "solver", true);
+        solverIncorrect = attemptsCreated(registry, "solver", false);
+        candidatesEvaluated = Counter.builder(SOLVER_CANDIDATES)
+                .description("Complete candidates evaluated by the solver")
+                .tag("outcome", "evaluated")
+                .register(registry);
+        candidatesPruned = Counter.builder(SOLVER_CANDIDATES)
+                .description("Complete candidates the solver ruled out without evaluating them")
+                .tag("outcome", "pruned")
+                .register(registry);
+        for (Phase phase : Phase.values()) {
+            phaseTimers[phase.ordinal()] = Timer.builder(SOLVER_PHASE)
+                    .description("Time spent in each solver phase, recorded once per solve")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    private static Counter attemptsCreated(MeterRegistry registry, String source, boolean correct) {
+        return Counter.builder(ATTEMPTS_STORED)
+                .description("Attempts stored, by origin and verdict")
+                .tag("source", source)
+                .tag("correct", String.valueOf(correct))
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // An attempt created through the API.
+    public void attemptCreated(boolean correct) {
+        if (enabled) {
+            (correct ? apiCorrect : apiIncorrect).increment();
+        }
+    }
+
+    // Attempts written by a solve.
+    public void solverAttemptsStored(long correct, long incorrect) {
+        if (enabled) {
+            solverCorrect.increment(correct);
+            solverIncorrect.increment(incorrect);
+        }
+    }
+
+    public void candidates(long evaluated, long pruned) {
+        if (enabled) {
+            candidatesEvaluated.increment(evaluated);
+            candidatesPruned.increment(pruned);
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        if (enabled) {
+            phaseTimers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,45 +1,126 @@
 package com.example.vietnamesepuzzle.service;
 
+import com.example.vietnamesepuzzle.equation.BranchAndBoundSolver;
+import com.example.vietnamesepuzzle.equation.EquationEvaluator;
+import com.example.vietnamesepuzzle.equation.EquationSolver;
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
 import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.AttemptBatchWriter;
 import com.example.vietnamesepuzzle.repository.AttemptRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class PuzzleSolveService {
 
+    private static final int[] DIGITS = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+    private static final long LOCK_POLL_MS = 100;
+
     private final AttemptRepository attemptRepository;
     private final AttemptUtils attemptUtils; // to convert strings/lists
+    private final AttemptBatchWriter attemptBatchWriter;
+    private final PuzzleEquation puzzleEquation;
+    private final PuzzleMetrics puzzleMetrics;
+    private final AttemptStatistics attemptStatistics;
+    // Evaluators may keep scratch state between calls, so each thread gets its own
+    private final ThreadLocal<EquationEvaluator> evaluators;
+    // Solves clear the table and fill it again, so they run one at a time
+    private final ReentrantLock solveLock = new ReentrantLock();
 
     public PuzzleSolveService(AttemptRepository attemptRepository,
-                              AttemptUtils attemptUtils) {
+                              AttemptUtils attemptUtils,
+                              AttemptBatchWriter attemptBatchWriter,
+                              PuzzleEquation puzzleEquation,
+                              PuzzleMetrics puzzleMetrics,
+                              AttemptStatistics attemptStatistics) {
         this.attemptRepository = attemptRepository;
         this.attemptUtils = attemptUtils;
+        this.attemptBatchWriter = attemptBatchWriter;
+        this.puzzleEquation = puzzleEquation;
+        this.puzzleMetrics = puzzleMetrics;
+        this.attemptStatistics = attemptStatistics;
+        this.evaluators = ThreadLocal.withInitial(puzzleEquation::newEvaluator);
     }
 
     /**
      * Generates a solution using an optimized approach while storing
      * all attempts (correct or not) until the first valid solution is found.
-     * The equation is:
+     * The equation is the configured {@link PuzzleEquation}, by default:
      * A + 13*(B/C) + D + E + 12*F - G - 11 + (H*I)/G - 10 == 66
      *
-     * @return a Map with keys "solution" (String) and "durationMs" (Long)
+     * @return a Map with keys "firstSolution" (String), "attemptsStored" (Integer) and "durationMs" (Long)
      */
     public Map<String, Object> generateSolutions() {
-        // Clear previous attempts
-        attemptRepository.deleteAll();
-        // We'll store the first valid solution in a local variable
-        List<String> firstSolution = new ArrayList<>(1);
+        return generateSolutions(SolveMode.OPTIMIZED, new SolveProgress());
+    }
 
-        long startTime = System.currentTimeMillis();
+    /**
+     * Same as {@link #generateSolutions()} with a choice of search strategy.
+     * Progress is reported through {@code progress}, and the search stops with a
+     * {@link CancellationException} once {@link SolveProgress#cancel()} is called.
+     * In NAIVE mode the result also holds all the "solutions" (List of String); in the other modes
+     * it holds the "nodesVisited" and "nodesPruned" (Long) of the search tree, to compare strategies.
+     * Phase timings and candidate counts are reported to {@link PuzzleMetrics} once the solve completes.
+     * A solve started while another one runs (from a job, or in another mode) waits for it to finish,
+     * and can be cancelled while it waits.
+     */
+    public Map<String, Object> generateSolutions(SolveMode mode, SolveProgress progress) {
+        acquireSolveLock(progress);
+        try {
+            return solve(mode, progress);
+        } finally {
+            solveLock.unlock();
+        }
+    }
+
+    private void acquireSolveLock(SolveProgress progress) {
+        try {
+            while (!solveLock.tryLock(LOCK_POLL_MS, TimeUnit.MILLISECONDS)) {
+                checkCancelled(progress);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for another solve.");
+        }
+    }
+
+    private Map<String, Object> solve(SolveMode mode, SolveProgress progress) {
+        // Clear previous attempts with one bulk delete, which also evicts the cached attempts
+        attemptRepository.deleteAllInBatch();
+        attemptStatistics.reconcile();
+        // We'll store the solutions found in a local variable
+        List<String> solutions = new ArrayList<>(1);
+        PendingAttempts pending = new PendingAttempts(progress);
 
-        backtrackOptimizedStoreAll(firstSolution);
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        long evaluationNanos = 0;
+        SearchStats stats = null;
+        switch (mode) {
+            case NAIVE -> evaluationNanos = naive(new int[DIGITS.length], 0, DIGITS, solutions, pending, progress);
+            case BRANCH_AND_BOUND -> stats = branchAndBoundStoreFirst(solutions, pending, progress);
+            default -> stats = backtrackOptimizedStoreAll(solutions, pending, progress);
+        }
+        pending.flush();
 
         long duration = System.currentTimeMillis() - startTime;
+        recordMetrics(mode, System.nanoTime() - startNanos, evaluationNanos,
+                stats == null ? 0 : stats.prunedCandidates(), pending, progress);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("firstSolution", firstSolution.isEmpty() ? null : firstSolution.get(0));
+        result.put("firstSolution", solutions.isEmpty() ? null : solutions.get(0));
+        if (mode == SolveMode.NAIVE) {
+            result.put("solutions", solutions);
+        } else {
+            result.put("nodesVisited", stats.nodesVisited());
+            result.put("nodesPruned", stats.nodesPruned());
+        }
+        result.put("attemptsStored", pending.getStored());
         result.put("durationMs", duration);
         return result;
     }
@@ -47,211 +128,231 @@ public class PuzzleSolveService {
     /**
      * Optimized backtracking that applies constraints but also stores each attempt
      * in the database (correct or incorrect) until the first valid solution is found.
+     * The constraints are derived from the compiled equation by {@link EquationSolver}:
+     * for the default equation, B, C, G, H and I are assigned first and a branch is
+     * dropped unless 13*B/C + H*I/G is an integer. The search allocates nothing per candidate.
+     *
+     * @return the search tree counts
      */
-    private void backtrackOptimizedStoreAll(List<String> firstSolution) {
-        List<Integer> digits = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
-        // We pick 5 permutations for B, C, H, I, G
-        List<List<Integer>> perm5 = permutations(digits, 5);
-
-        outerLoop:
-        for (List<Integer> list5 : perm5) {
-            int B = list5.get(0);
-            int C = list5.get(1);
-            int H = list5.get(2);
-            int I = list5.get(3);
-            int G = list5.get(4);
-
-            // Skip if C or G is 5 or 7 as denominators
-            if (C == 5 || C == 7 || G == 5 || G == 7) {
-                continue;
-            }
-
-            Fraction frac1 = new Fraction(13L * B, C);
-            Fraction frac2 = new Fraction((long) H * I, G);
-
-            if (!frac1.add(frac2).isInteger()) {
-                continue;
-            }
-
-            // The remaining digits for A, D, E, F
-            Set<Integer> used = new HashSet<>(list5);
-            List<Integer> remaining = new ArrayList<>();
-            for (int d : digits) {
-                if (!used.contains(d)) {
-                    remaining.add(d);
-                }
+    private SearchStats backtrackOptimizedStoreAll(List<String> firstSolution, PendingAttempts pending,
+                                            SolveProgress progress) {
+        EquationSolver solver = new EquationSolver(puzzleEquation, DIGITS);
+        solver.forEachCandidate((values, correct) -> {
+            checkCancelled(progress);
+            progress.incrementExplored();
+
+            String attemptInput = attemptUtils.convertArrayToString(values);
+            pending.add(attemptInput, correct);
+            if (correct) {
+                firstSolution.add(attemptInput);
+                progress.addSolution(attemptInput);
+                return false;
             }
+            return true;
+        });
+        return new SearchStats(solver.getNodesVisited(), solver.getNodesPruned(), solver.getPrunedCandidates());
+    }
 
-            List<List<Integer>> perm4 = permutations(remaining, 4);
-
-            for (List<Integer> list4 : perm4) {
-                int A = list4.get(0);
-                int D = list4.get(1);
-                int E = list4.get(2);
-                int F = list4.get(3);
-
-                if (E > 7) {
-                    // store as incorrect
-                    String attemptInput = attemptUtils.convertListToString(
-                            Arrays.asList(A, B, C, D, E, F, G, H, I)
-                    );
-                    storeAttemptIfNotExists(attemptInput, false);
-                    continue;
-                }
-
-                Fraction total = new Fraction(A, 1)
-                        .add(frac1)
-                        .add(new Fraction(D, 1))
-                        .add(new Fraction(E, 1))
-                        .add(new Fraction(12L * F, 1))
-                        .subtract(new Fraction(G, 1))
-                        .subtract(new Fraction(11, 1))
-                        .add(frac2)
-                        .subtract(new Fraction(10, 1));
-
-                String attemptInput = attemptUtils.convertListToString(
-                        Arrays.asList(A, B, C, D, E, F, G, H, I)
-                );
-
-                boolean correct = (total.isInteger() && total.intValue() == 66);
-                storeAttemptIfNotExists(attemptInput, correct);
-
-                if (correct) {
-                    firstSolution.add(attemptInput);
-                    break outerLoop;
-                }
-            }
-        }
+    /**
+     * Branch and bound search that stops at the first solution (see {@link BranchAndBoundSolver}).
+     * Its bounds cut every branch that cannot reach the right-hand side, and the last variable is
+     * solved for directly, so the only complete assignment it reaches, and stores, is the solution.
+     */
+    private SearchStats branchAndBoundStoreFirst(List<String> firstSolution, PendingAttempts pending,
+                                                 SolveProgress progress) {
+        BranchAndBoundSolver solver = new BranchAndBoundSolver(puzzleEquation, DIGITS);
+        solver.forEachSolution(values -> {
+            checkCancelled(progress);
+            progress.incrementExplored();
+
+            String attemptInput = attemptUtils.convertArrayToString(values);
+            pending.add(attemptInput, true);
+            firstSolution.add(attemptInput);
+            progress.addSolution(attemptInput);
+            return false;
+        });
+        return new SearchStats(solver.getNodesVisited(), solver.getNodesPruned(), solver.getPrunedCandidates());
     }
 
     /**
      * Naive backtracking approach that tries all 9! permutations.
+     * The digits of {@code current} are kept as a fixed prefix and every ordering
+     * of {@code remaining} is appended to it.
+     * Attempts are inserted in batches without an existence check, so the caller
+     * clears the table first, as generateSolutions does.
      * It is kept here for reference.
      */
     public void backtrackNaive(List<Integer> current, List<Integer> remaining, List<String> solutions) {
-        // For instance, store solutions or just find the first
-        if (remaining.isEmpty()) {
-            // Evaluate
-            boolean correct = evaluateExpression(current);
-            String attemptInput = attemptUtils.convertListToString(current);
-            storeAttemptIfNotExists(attemptInput, correct);
+        int prefix = current.size();
+        int[] candidate = new int[prefix + remaining.size()];
+        for (int i = 0; i < prefix; i++) {
+            candidate[i] = current.get(i);
+        }
+        int[] pool = new int[remaining.size()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = remaining.get(i);
+        }
+
+        SolveProgress progress = new SolveProgress();
+        PendingAttempts pending = new PendingAttempts(progress);
+        naive(candidate, prefix, pool, solutions, pending, progress);
+        pending.flush();
+    }
+
+    // Appends every ordering of pool to the first prefix digits of candidate, and stores each.
+    // Returns the time spent evaluating, measured only when metrics are enabled.
+    private long naive(int[] candidate, int prefix, int[] pool, List<String> solutions,
+                       PendingAttempts pending, SolveProgress progress) {
+        boolean timed = puzzleMetrics.isEnabled();
+        long evaluationNanos = 0;
+        PermutationCursor cursor = new PermutationCursor(pool.length).reset(pool, pool.length, pool.length);
+        while (cursor.next()) {
+            checkCancelled(progress);
+            progress.incrementExplored();
+
+            System.arraycopy(cursor.values(), 0, candidate, prefix, pool.length);
+            long evaluationStart = timed ? System.nanoTime() : 0;
+            boolean correct = evaluateExpression(candidate);
+            if (timed) {
+                evaluationNanos += System.nanoTime() - evaluationStart;
+            }
+            String attemptInput = attemptUtils.convertArrayToString(candidate);
+            pending.add(attemptInput, correct);
             if (correct) {
                 solutions.add(attemptInput);
+                progress.addSolution(attemptInput);
             }
-            return;
-        }
-        for (Integer digit : new ArrayList<>(remaining)) {
-            current.add(digit);
-            List<Integer> newRemaining = new ArrayList<>(remaining);
-            newRemaining.remove(digit);
-            backtrackNaive(current, newRemaining, solutions);
-            current.remove(current.size() - 1);
         }
+        return evaluationNanos;
     }
 
     // Evaluate the puzzle's equation for a 9-digit permutation
     public boolean evaluateExpression(List<Integer> values) {
-        if (values.size() < 9) {
+        int count = puzzleEquation.getVariableCount();
+        if (values.size() < count) {
             return false;
         }
-        int A = values.get(0);
-        int B = values.get(1);
-        int C = values.get(2);
-        int D = values.get(3);
-        int E = values.get(4);
-        int F = values.get(5);
-        int G = values.get(6);
-        int H = values.get(7);
-        int I = values.get(8);
-
-        double result = A + 13 * ((double) B / C) + D + E
-                + 12 * F - G - 11 + ((double) H * I) / G - 10;
-
-        return Math.abs(result - 66.0) < 0.000001;
+        int[] digits = new int[count];
+        for (int i = 0; i < count; i++) {
+            digits[i] = values.get(i);
+        }
+        return evaluateExpression(digits);
+    }
+
+    // Same as above, on a primitive array so the solvers do not box their candidates.
+    // The equation is checked exactly, on longs scaled by its common denominator (C * G by default).
+    public boolean evaluateExpression(int[] values) {
+        if (values.length < puzzleEquation.getVariableCount()) {
+            return false;
+        }
+        return evaluators.get().isSatisfiedBy(values);
     }
 
     /**
-     * Generate permutations of length k from the given list of digits
+     * Generate permutations of length k from the given list of digits.
+     * This materializes every permutation; the solvers iterate a {@link PermutationCursor} instead.
      */
     public List<List<Integer>> permutations(List<Integer> arr, int k) {
+        int[] pool = new int[arr.size()];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = arr.get(i);
+        }
         List<List<Integer>> result = new ArrayList<>();
-        backtrackPerm(arr, new ArrayList<>(), k, result);
+        PermutationCursor cursor = new PermutationCursor(pool.length).reset(pool, pool.length, k);
+        while (cursor.next()) {
+            List<Integer> perm = new ArrayList<>(k);
+            for (int i = 0; i < k; i++) {
+                perm.add(cursor.get(i));
+            }
+            result.add(perm);
+        }
         return result;
     }
 
-    public void backtrackPerm(List<Integer> arr, List<Integer> temp, int k, List<List<Integer>> result) {
-        if (temp.size() == k) {
-            result.add(new ArrayList<>(temp));
+    /**
+     * The optimized search evaluates candidates inside {@link EquationSolver}, so its evaluation
+     * time is part of the permutations phase and no evaluation sample is recorded for it.
+     */
+    private void recordMetrics(SolveMode mode, long totalNanos, long evaluationNanos, long pruned,
+                               PendingAttempts pending, SolveProgress progress) {
+        if (!puzzleMetrics.isEnabled()) {
             return;
         }
-        for (int i = 0; i < arr.size(); i++) {
-            int val = arr.get(i);
-            temp.add(val);
-            List<Integer> remaining = new ArrayList<>(arr);
-            remaining.remove(i);
-            backtrackPerm(remaining, temp, k, result);
-            temp.remove(temp.size() - 1);
+        puzzleMetrics.candidates(progress.getExplored(), pruned);
+        puzzleMetrics.solverAttemptsStored(pending.getStoredCorrect(), pending.getStored() - pending.getStoredCorrect());
+        puzzleMetrics.recordPhase(PuzzleMetrics.Phase.PERSISTENCE, pending.getPersistenceNanos());
+        if (mode == SolveMode.NAIVE) {
+            puzzleMetrics.recordPhase(PuzzleMetrics.Phase.EVALUATION, evaluationNanos);
         }
+        puzzleMetrics.recordPhase(PuzzleMetrics.Phase.PERMUTATIONS,
+                Math.max(0, totalNanos - evaluationNanos - pending.getPersistenceNanos()));
     }
 
-    /**
-     * Store the attempt in the database if it does not exist yet.
-     *
-     * @param attemptInput the 9-digit permutation as a string
-     * @param isCorrect    whether the attempt is correct
-     */
-    private void storeAttemptIfNotExists(String attemptInput, boolean isCorrect) {
-        if (attemptRepository.findByAttemptInput(attemptInput).isEmpty()) {
-            Attempt attempt = new Attempt();
-            attempt.setAttemptInput(attemptInput);
-            attempt.setCorrect(isCorrect);
-            attemptRepository.save(attempt);
+    private static void checkCancelled(SolveProgress progress) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("The solve was cancelled.");
         }
     }
 
+    // Search tree counts of one solve.
+    private record SearchStats(long nodesVisited, long nodesPruned, long prunedCandidates) {
+    }
+
     /**
-     * A small Fraction class to avoid floating precision issues.
+     * Buffers the attempts of one solve and hands them to the batch writer
+     * one batch at a time. The solvers visit each permutation once on a cleared
+     * table, so no per-row existence check is needed.
      */
-    public static class Fraction {
-        private final long num;
-        private final long den;
+    private class PendingAttempts {
+        private final int batchSize = Math.max(1, attemptBatchWriter.getBatchSize());
+        private final List<Attempt> buffer = new ArrayList<>(batchSize);
+        private final SolveProgress progress;
+        private int stored;
+        private int storedCorrect;
+        private int bufferedCorrect;
+        private long persistenceNanos;
+
+        PendingAttempts(SolveProgress progress) {
+            this.progress = progress;
+        }
 
-        public Fraction(long num, long den) {
-            if (den == 0) {
-                throw new ArithmeticException("Denominator cannot be zero");
+        void add(String attemptInput, boolean isCorrect) {
+            Attempt attempt = new Attempt();
+            attempt.setAttemptInput(attemptInput);
+            attempt.setCorrect(isCorrect);
+            buffer.add(attempt);
+            if (isCorrect) {
+                bufferedCorrect++;
             }
-            long g = gcd(Math.abs(num), Math.abs(den));
-            if (den < 0) {
-                den = -den;
-                num = -num;
+            if (buffer.size() >= batchSize) {
+                flush();
             }
-            this.num = num / g;
-            this.den = den / g;
         }
 
-        private static long gcd(long a, long b) {
-            if (b == 0) return a;
-            return gcd(b, a % b);
-        }
-
-        public Fraction add(Fraction other) {
-            long newNum = this.num * other.den + other.num * this.den;
-            long newDen = this.den * other.den;
-            return new Fraction(newNum, newDen);
+        void flush() {
+            if (!buffer.isEmpty()) {
+                long start = System.nanoTime();
+                attemptBatchWriter.insertAll(buffer);
+                persistenceNanos += System.nanoTime() - start;
+                stored += buffer.size();
+                storedCorrect += bufferedCorrect;
+                attemptStatistics.created(bufferedCorrect, buffer.size() - bufferedCorrect);
+                progress.addPersisted(buffer.size());
+                buffer.clear();
+                bufferedCorrect = 0;
+            }
         }
 
-        public Fraction subtract(Fraction other) {
-            long newNum = this.num * other.den - other.num * this.den;
-            long newDen = this.den * other.den;
-            return new Fraction(newNum, newDen);
+        int getStored() {
+            return stored;
         }
 
-        public boolean isInteger() {
-            return (num % den == 0);
+        int getStoredCorrect() {
+            return storedCorrect;
         }
 
-        public int intValue() {
-            return (int) (num / den);
+        long getPersistenceNanos() {
+            return persistenceNanos;
         }
     }
 }
@@ -0,0 +1,313 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spreads an enumeration of all 9! permutations over several instances.
+ * <p>
+ * The rank space is cut into equal shards, which the workers pull from a shared queue, one at
+ * a time, so faster workers take more shards. A shard that fails, times out or comes back
+ * with a wrong solution goes back on the queue for the workers that have not failed it yet,
+ * until it has been tried {@code puzzle.cluster.max-attempts} times; the solve then fails.
+ * Results are merged in rank order, so they do not depend on which worker solved which shard.
+ * <p>
+ * Workers are the base URLs of other instances in {@code puzzle.cluster.workers}; "local"
+ * stands for this instance, in process, which is also the default.
+ * <p>
+ * Each worker is fed by a dispatch thread, taken from a pool kept for the life of the service.
+ * Local shards are solved on a pool of their own, one thread per "local" entry, so dispatch
+ * threads only wait on workers and never compete with the solving for a thread.
+ */
+@Service
+public class ShardCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardCoordinator.class);
+    private static final long POLL_MS = 50;
+
+    public static final String LOCAL_WORKER = "local";
+
+    private final ShardSolveService shardSolveService;
+    private final PuzzleSolveService puzzleSolveService;
+    private final List<ShardWorker> workers;
+    private final int defaultShards;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    // Dispatch threads, one per worker of each running solve
+    private final ExecutorService dispatchExecutor;
+    // Threads solving the shards of the local workers
+    private final ExecutorService localExecutor;
+
+    public ShardCoordinator(ShardSolveService shardSolveService,
+                            PuzzleSolveService puzzleSolveService,
+                            @Value("${puzzle.cluster.workers:local}") List<String> workerUrls,
+                            @Value("${puzzle.cluster.shards:72}") int defaultShards,
+                            @Value("${puzzle.cluster.max-attempts:3}") int maxAttempts,
+                            @Value("${puzzle.cluster.timeout-ms:30000}") long timeoutMs,
+                            @Value("${puzzle.cluster.retry-backoff-ms:100}") long retryBackoffMs) {
+        this.shardSolveService = shardSolveService;
+        this.puzzleSolveService = puzzleSolveService;
+        this.defaultShards = defaultShards;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.dispatchExecutor = Executors.newCachedThreadPool(daemonThreads("shard-dispatch-"));
+        this.localExecutor = Executors.newFixedThreadPool(
+                (int) Math.max(1, workerUrls.stream().filter(LOCAL_WORKER::equals).count()),
+                daemonThreads("shard-local-"));
+        this.workers = new ArrayList<>();
+        for (String url : workerUrls) {
+            workers.add(url.equals(LOCAL_WORKER) ? localWorker()
+                    : new HttpShardWorker(url, Duration.ofMillis(timeoutMs)));
+        }
+    }
+
+    /**
+     * Solves all permutations on the configured workers.
+     *
+     * @param shards the number of shards, or null for the configured number
+     */
+    public Map<String, Object> solve(Integer shards) {
+        return solve(workers, shards == null ? defaultShards : shards);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+        localExecutor.shutdownNow();
+    }
+
+    // A worker solving shards in process, on the local pool; the calling dispatch thread waits for it.
+    public ShardWorker localWorker() {
+        return new ShardWorker() {
+            @Override
+            public String getName() {
+                return LOCAL_WORKER;
+            }
+
+            @Override
+            public List<String> solve(int fromRank, int toRank) {
+                Future<List<String>> shard = localExecutor.submit(() -> shardSolveService.solveRange(fromRank, toRank));
+                try {
+                    return shard.get();
+                } catch (InterruptedException ex) {
+                    shard.cancel(true);
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while solving a local shard", ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw new IllegalStateException("A local shard failed", ex.getCause());
+                }
+            }
+        };
+    }
+
+    /**
+     * Solves all permutations on the given workers.
+     *
+     * @return a Map with keys "solutions" (List of String, in rank order), "count", "shards" (Integer),
+     * "workers" (List of String), "shardsPerWorker" (Map of worker name to Integer),
+     * "retries" (Integer) and "durationMs" (Long)
+     * @throws IllegalStateException when a shard failed on every attempt
+     */
+    public Map<String, Object> solve(List<ShardWorker> shardWorkers, int shards) {
+        if (shards < 1 || shards > PermutationRank.PERMUTATION_COUNT) {
+            throw new InvalidRequestException(
+                    "The number of shards must be between 1 and " + PermutationRank.PERMUTATION_COUNT + ".");
+        }
+        if (shardWorkers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required.");
+        }
+        long startTime = System.currentTimeMillis();
+
+        BlockingQueue<Shard> queue = new LinkedBlockingQueue<>();
+        for (int i = 0; i < shards; i++) {
+            int fromRank = (int) ((long) i * PermutationRank.PERMUTATION_COUNT / shards);
+            int toRank = (int) ((long) (i + 1) * PermutationRank.PERMUTATION_COUNT / shards);
+            queue.add(new Shard(i, fromRank, toRank, 1, Set.of()));
+        }
+        Dispatch dispatch = new Dispatch(queue, shards, shardWorkers.size());
+
+        Map<String, Integer> shardsPerWorker = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < shardWorkers.size(); i++) {
+                ShardWorker worker = shardWorkers.get(i);
+                int workerIndex = i;
+                shardsPerWorker.putIfAbsent(worker.getName(), 0);
+                futures.add(dispatchExecutor.submit(() -> dispatch.run(worker, workerIndex, shardsPerWorker)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("A shard dispatcher failed", ex.getCause());
+        } finally {
+            // Stops the other dispatchers when one failed or this thread was interrupted
+            futures.forEach(future -> future.cancel(true));
+        }
+        if (dispatch.failure.get() != null) {
+            throw dispatch.failure.get();
+        }
+
+        List<String> solutions = new ArrayList<>();
+        for (List<String> shardSolutions : dispatch.results) {
+            solutions.addAll(shardSolutions);
+        }
+        long duration = System.currentTimeMillis() - startTime;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("solutions", solutions);
+        result.put("count", solutions.size());
+        result.put("shards", shards);
+        result.put("workers", shardWorkers.stream().map(ShardWorker::getName).toList());
+        result.put("shardsPerWorker", shardsPerWorker);
+        result.put("retries", dispatch.retries.get());
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // failedOn holds the indexes of the workers this shard failed on.
+    private record Shard(int index, int fromRank, int toRank, int attempt, Set<Integer> failedOn) {
+
+        Shard retry(int failedWorker) {
+            Set<Integer> workers = new HashSet<>(failedOn);
+            workers.add(failedWorker);
+            return new Shard(index, fromRank, toRank, attempt + 1, Set.copyOf(workers));
+        }
+    }
+
+    // The state of one solve shared by its dispatch threads, one per worker.
+    private class Dispatch {
+
+        private final BlockingQueue<Shard> queue;
+        private final List<String>[] results;
+        private final AtomicInteger remaining;
+        private final AtomicInteger retries = new AtomicInteger();
+        private final AtomicReference<IllegalStateException> failure = new AtomicReference<>();
+        private final int workerCount;
+        // Released once every shard is solved or one has failed for good
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        @SuppressWarnings("unchecked")
+        Dispatch(BlockingQueue<Shard> queue, int shards, int workerCount) {
+            this.queue = queue;
+            this.results = new List[shards];
+            this.remaining = new AtomicInteger(shards);
+            this.workerCount = workerCount;
+        }
+
+        // Feeds shards to one worker until every shard is solved or one has failed for good.
+        void run(ShardWorker worker, int workerIndex, Map<String, Integer> shardsPerWorker) {
+            int consecutiveFailures = 0;
+            while (remaining.get() > 0 && failure.get() == null) {
+                Shard shard = poll();
+                if (shard == null) {
+                    // The other workers hold the last shards; one may still come back for a retry
+                    continue;
+                }
+                if (shard.failedOn().contains(workerIndex) && shard.failedOn().size() < workerCount) {
+                    // Leave it to a worker that has not failed it yet
+                    queue.add(shard);
+                    pause(POLL_MS);
+                    continue;
+                }
+                try {
+                    List<String> solutions = worker.solve(shard.fromRank(), shard.toRank());
+                    checkSolutions(shard, solutions);
+                    results[shard.index()] = solutions;
+                    shardsPerWorker.merge(worker.getName(), 1, Integer::sum);
+                    if (remaining.decrementAndGet() == 0) {
+                        finished.countDown();
+                    }
+                    consecutiveFailures = 0;
+                } catch (RuntimeException ex) {
+                    fail(worker, workerIndex, shard, ex);
+                    // Gives the other workers a chance to pick the shard up first; a worker that keeps
+                    // failing waits twice as long each time, so a dead one stops taking shards
+                    pause(retryBackoffMs << Math.min(consecutiveFailures++, 6));
+                }
+            }
+        }
+
+        private Shard poll() {
+            try {
+                return queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, new IllegalStateException("Interrupted while dispatching shards", ex));
+                finished.countDown();
+                return null;
+            }
+        }
+
+        private void fail(ShardWorker worker, int workerIndex, Shard shard, RuntimeException ex) {
+            String range = "[" + shard.fromRank() + ", " + shard.toRank() + ")";
+            if (shard.attempt() >= maxAttempts) {
+                failure.compareAndSet(null, new IllegalStateException(
+                        "Shard " + range + " failed " + shard.attempt() + " times, last on "
+                                + worker.getName() + ": " + ex.getMessage(), ex));
+                finished.countDown();
+                return;
+            }
+            log.warn("Shard {} failed on {} (attempt {} of {}), retrying: {}",
+                    range, worker.getName(), shard.attempt(), maxAttempts, ex.getMessage());
+            retries.incrementAndGet();
+            queue.add(shard.retry(workerIndex));
+        }
+
+        // Waits, unless the solve finishes first.
+        private void pause(long millis) {
+            try {
+                finished.await(millis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // A worker running another equation (or a broken one) must not corrupt the merged result.
+        private void checkSolutions(Shard shard, List<String> solutions) {
+            int previousRank = -1;
+            for (String solution : solutions) {
+                int rank = PermutationRank.rank(solution);
+                if (rank < shard.fromRank() || rank >= shard.toRank() || rank <= previousRank) {
+                    throw new IllegalStateException("Out of range or unordered solution " + solution);
+                }
+                int[] digits = new int[9];
+                PermutationRank.unrank(rank, digits);
+                if (!puzzleSolveService.evaluateExpression(digits)) {
+                    throw new IllegalStateException("Not a solution: " + solution);
+                }
+                previousRank = rank;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Worker side of a sharded solve (see {@link ShardCoordinator}): evaluates every permutation
+ * whose {@link PermutationRank} lies in a given range, without storing attempts.
+ * <p>
+ * Ranks follow lexicographic order, so the permutations sharing a prefix form one contiguous
+ * range (see {@link #prefixRange(String)}), and a shard walks its range with an in-place
+ * next-permutation step that allocates nothing per candidate.
+ */
+@Service
+public class ShardSolveService {
+
+    private final PuzzleSolveService puzzleSolveService;
+    private final AttemptUtils attemptUtils;
+
+    public ShardSolveService(PuzzleSolveService puzzleSolveService, AttemptUtils attemptUtils) {
+        this.puzzleSolveService = puzzleSolveService;
+        this.attemptUtils = attemptUtils;
+    }
+
+    /**
+     * Solves the ranks {@code fromRank} (inclusive) to {@code toRank} (exclusive).
+     *
+     * @return a Map with keys "fromRank", "toRank" (Integer), "solutions" (List of String, in rank order),
+     * "evaluated" (Integer) and "durationMs" (Long)
+     */
+    public Map<String, Object> solveShard(int fromRank, int toRank) {
+        long startTime = System.currentTimeMillis();
+        List<String> solutions = solveRange(fromRank, toRank);
+        long duration = System.currentTimeMillis() - startTime;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("fromRank", fromRank);
+        result.put("toRank", toRank);
+        result.put("solutions", solutions);
+        result.put("evaluated", toRank - fromRank);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    // The solutions among the ranks fromRank (inclusive) to toRank (exclusive), in rank order.
+    public List<String> solveRange(int fromRank, int toRank) {
+        if (fromRank < 0 || toRank > PermutationRank.PERMUTATION_COUNT || fromRank > toRank) {
+            throw new InvalidRequestException("Invalid rank range: [" + fromRank + ", " + toRank + ")");
+        }
+        List<String> solutions = new ArrayList<>();
+        if (fromRank == toRank) {
+            return solutions;
+        }
+        int[] digits = new int[9];
+        PermutationRank.unrank(fromRank, digits);
+        for (int rank = fromRank; rank < toRank; rank++) {
+            if (puzzleSolveService.evaluateExpression(digits)) {
+                solutions.add(attemptUtils.convertArrayToString(digits));
+            }
+            if (rank + 1 < toRank) {
+                nextPermutation(digits);
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * The rank range of the permutations starting with {@code prefix}, e.g. "52".
+     *
+     * @return {fromRank, toRank}
+     */
+    public static int[] prefixRange(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() > 9) {
+            throw new InvalidRequestException("A prefix must have 1 to 9 digits.");
+        }
+        // The smallest permutation with this prefix: the prefix, then the other digits ascending
+        StringBuilder smallest = new StringBuilder(prefix);
+        for (char digit = '1'; digit <= '9'; digit++) {
+            if (prefix.indexOf(digit) < 0) {
+                smallest.append(digit);
+            }
+        }
+        int fromRank = PermutationRank.rank(smallest.toString());
+        if (fromRank < 0) {
+            throw new InvalidRequestException("A prefix must have distinct digits from 1 to 9: " + prefix);
+        }
+        int size = 1;
+        for (int free = 9 - prefix.length(); free > 1; free--) {
+            size *= free;
+        }
+        return new int[]{fromRank, fromRank + size};
+    }
+
+    // Rearranges digits into the next permutation in lexicographic order; digits must not be the last one.
+    private static void nextPermutation(int[] digits) {
+        int pivot = digits.length - 2;
+        while (digits[pivot] > digits[pivot + 1]) {
+            pivot--;
+        }
+        int successor = digits.length - 1;
+        while (digits[successor] < digits[pivot]) {
+            successor--;
+        }
+        swap(digits, pivot, successor);
+        for (int left = pivot + 1, right = digits.length - 1; left < right; left++, right--) {
+            swap(digits, left, right);
+        }
+    }
+
+    private static void swap(int[] digits, int i, int j) {
+        int tmp = digits[i];
+        digits[i] = digits[j];
+        digits[j] = tmp;
+    }
+}
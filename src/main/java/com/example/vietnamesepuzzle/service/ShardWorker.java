@@ -0,0 +1,21 @@
+package com.example.vietnamesepuzzle.service;
+
+import java.util.List;
+
+/**
+ * A place {@link ShardCoordinator} can send a shard to: another instance over HTTP
+ * ({@link HttpShardWorker}) or this one, in process.
+ */
+public interface ShardWorker {
+
+    // Name shown in the coordinator's result, e.g. the worker's base URL.
+    String getName();
+
+    /**
+     * Solves the ranks {@code fromRank} (inclusive) to {@code toRank} (exclusive).
+     *
+     * @return the solutions in rank order
+     * @throws RuntimeException when the shard could not be solved; the coordinator retries it
+     */
+    List<String> solve(int fromRank, int toRank);
+}
@@ -0,0 +1,187 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers partial-assignment queries ("A=4 and F=6: which digits can C still take?") over the
+ * solutions of the {@link VerdictIndex}, without enumerating permutations.
+ * <p>
+ * Solutions are numbered in rank order, and for each letter and digit a bitset holds the
+ * solutions giving that digit to that letter. A query ANDs the bitsets of its assigned letters;
+ * the remaining solutions are the set bits, a letter's domain is the digits whose bitset meets
+ * them. With the default equation's 84 solutions a bitset is two words.
+ */
+@Service
+public class SolutionIndex {
+
+    public static final int LETTERS = 9;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final VerdictIndex verdictIndex;
+
+    // Solutions in rank order
+    private List<String> solutions = List.of();
+    // Bitset of the solutions in which letter l has digit d: matches[l * 10 + d]
+    private long[][] matches = new long[LETTERS * 10][];
+    // Bitset of every solution
+    private long[] all = new long[0];
+    private int words;
+
+    public SolutionIndex(VerdictIndex verdictIndex) {
+        this.verdictIndex = verdictIndex;
+    }
+
+    @PostConstruct
+    public void build() {
+        List<String> sorted = verdictIndex.getSolutions().stream()
+                .sorted(Comparator.comparingInt(PermutationRank::rank))
+                .toList();
+        int wordCount = Math.max(1, (sorted.size() + 63) / 64);
+        long[][] bitsets = new long[LETTERS * 10][wordCount];
+        long[] every = new long[wordCount];
+        for (int s = 0; s < sorted.size(); s++) {
+            String solution = sorted.get(s);
+            every[s >>> 6] |= 1L << s;
+            for (int letter = 0; letter < LETTERS; letter++) {
+                bitsets[letter * 10 + solution.charAt(letter) - '0'][s >>> 6] |= 1L << s;
+            }
+        }
+        this.words = wordCount;
+        this.matches = bitsets;
+        this.all = every;
+        this.solutions = sorted;
+    }
+
+    /**
+     * Parses a partial assignment such as {"A": "4", "F": "6"}.
+     *
+     * @return the digit of each letter A..I, 0 when unassigned
+     * @throws InvalidRequestException for a letter outside A..I or a digit outside 1..9
+     */
+    public static int[] parseAssignment(Map<String, String> assignment) {
+        int[] digits = new int[LETTERS];
+        assignment.forEach((name, value) -> {
+            if (name.length() != 1 || name.charAt(0) < 'A' || name.charAt(0) >= 'A' + LETTERS) {
+                throw new InvalidRequestException("Unknown letter: " + name + ". Letters are A to I.");
+            }
+            if (value == null || value.length() != 1 || value.charAt(0) < '1' || value.charAt(0) > '9') {
+                throw new InvalidRequestException("The digit of " + name + " must be between 1 and 9.");
+            }
+            digits[name.charAt(0) - 'A'] = value.charAt(0) - '0';
+        });
+        return digits;
+    }
+
+    /**
+     * The solutions matching a partial assignment.
+     *
+     * @param assignment the digit of each letter A..I, 0 when unassigned (see {@link #parseAssignment(Map)})
+     * @return a Map with keys "assignment" (Map of letter to Integer), "remaining" (Integer, the number of
+     * matching solutions), "domains" (Map of letter to the List of Integer digits it takes in them),
+     * "completions" (List of String, the page of matching solutions in rank order), "offset" and "limit"
+     * (Integer) and "nextOffset" (Integer, null on the last page)
+     */
+    public Map<String, Object> query(int[] assignment, int offset, int limit) {
+        if (offset < 0) {
+            throw new InvalidRequestException("The offset must not be negative.");
+        }
+        if (limit < 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("The page size must be between 0 and " + MAX_PAGE_SIZE + ".");
+        }
+        long[] remaining = remaining(assignment);
+
+        int count = 0;
+        for (long word : remaining) {
+            count += Long.bitCount(word);
+        }
+
+        Map<String, Object> domains = new LinkedHashMap<>();
+        for (int letter = 0; letter < LETTERS; letter++) {
+            List<Integer> domain = new ArrayList<>(9);
+            for (int digit = 1; digit <= 9; digit++) {
+                if (intersects(remaining, matches[letter * 10 + digit])) {
+                    domain.add(digit);
+                }
+            }
+            domains.put(String.valueOf((char) ('A' + letter)), domain);
+        }
+
+        List<String> completions = new ArrayList<>(Math.min(limit, count));
+        int skipped = 0;
+        for (int w = 0; w < words && completions.size() < limit; w++) {
+            long word = remaining[w];
+            while (word != 0 && completions.size() < limit) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (skipped++ >= offset) {
+                    completions.add(solutions.get(s));
+                }
+            }
+        }
+
+        Map<String, Object> givenDigits = new LinkedHashMap<>();
+        for (int letter = 0; letter < LETTERS; letter++) {
+            if (assignment[letter] != 0) {
+                givenDigits.put(String.valueOf((char) ('A' + letter)), assignment[letter]);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("assignment", givenDigits);
+        result.put("remaining", count);
+        result.put("domains", domains);
+        result.put("completions", completions);
+        result.put("offset", offset);
+        result.put("limit", limit);
+        int next = offset + completions.size();
+        result.put("nextOffset", next < count && limit > 0 ? next : null);
+        return result;
+    }
+
+    // Number of solutions matching a partial assignment.
+    public int countCompletions(int[] assignment) {
+        int count = 0;
+        for (long word : remaining(assignment)) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // The bitset of the solutions matching the assignment.
+    private long[] remaining(int[] assignment) {
+        if (assignment.length != LETTERS) {
+            throw new IllegalArgumentException("An assignment has one digit (or 0) per letter A to I.");
+        }
+        // Every solution, then narrowed by each assigned letter
+        long[] remaining = all.clone();
+        for (int letter = 0; letter < LETTERS; letter++) {
+            int digit = assignment[letter];
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Digits are between 1 and 9 (0 for an unassigned letter).");
+            }
+            if (digit != 0) {
+                long[] match = matches[letter * 10 + digit];
+                for (int w = 0; w < words; w++) {
+                    remaining[w] &= match[w];
+                }
+            }
+        }
+        return remaining;
+    }
+
+    private boolean intersects(long[] a, long[] b) {
+        for (int w = 0; w < words; w++) {
+            if ((a[w] & b[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the solved state, so that a restarted instance does not solve again.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ *   int   magic "VPSS"
+ *   int   format version
+ *   int   CRC32 of the equation source (a snapshot of another equation is ignored)
+ *   int   number of permutations (9!)
+ *   int   number of solutions s
+ *   int   reserved
+ *   int[s]    solution ranks (see {@link PermutationRank}), in solver order
+ *   long[w]   verdict bitmap, bit r of word r / 64 set when rank r is a solution
+ *   long  CRC32 of everything above
+ * </pre>
+ * The file is memory-mapped read-only and the verdicts are read from the mapping directly.
+ * It is written to a temporary file first and moved into place, so readers never see half of it.
+ */
+@Component
+public class SolutionSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(SolutionSnapshot.class);
+
+    static final int MAGIC = 0x56505353; // "VPSS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+    static final int VERDICT_WORDS = (PermutationRank.PERMUTATION_COUNT + 63) / 64;
+
+    // Ranks of the solutions and the mapped verdict bitmap of a loaded snapshot.
+    public record Contents(int[] solutionRanks, LongBuffer verdictWords) {
+    }
+
+    private final Path path;
+    private final int equationChecksum;
+
+    public SolutionSnapshot(PuzzleEquation puzzleEquation,
+                            @Value("${puzzle.snapshot.path:}") String path) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path);
+        CRC32 crc = new CRC32();
+        crc.update(puzzleEquation.getSource().getBytes(StandardCharsets.UTF_8));
+        this.equationChecksum = (int) crc.getValue();
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Maps the snapshot file.
+     *
+     * @return the contents, or empty when snapshots are disabled, the file is missing,
+     * or it does not pass the header and checksum checks (logged)
+     */
+    public Optional<Contents> load() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + (long) VERDICT_WORDS * Long.BYTES + Long.BYTES) {
+                return rejected("truncated file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                return rejected("not a snapshot file");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                return rejected("format version " + buffer.getInt(4) + ", expected " + VERSION);
+            }
+            if (buffer.getInt(8) != equationChecksum) {
+                return rejected("written for another equation");
+            }
+            int solutionCount = buffer.getInt(16);
+            if (buffer.getInt(12) != PermutationRank.PERMUTATION_COUNT || solutionCount < 0
+                    || solutionCount > PermutationRank.PERMUTATION_COUNT || size != fileSize(solutionCount)) {
+                return rejected("inconsistent header");
+            }
+            int checksumOffset = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, checksumOffset));
+            if (buffer.getLong(checksumOffset) != crc.getValue()) {
+                return rejected("checksum mismatch");
+            }
+
+            int[] ranks = new int[solutionCount];
+            buffer.slice(HEADER_BYTES, solutionCount * Integer.BYTES).asIntBuffer().get(ranks);
+            LongBuffer verdicts = buffer.slice(HEADER_BYTES + solutionCount * Integer.BYTES,
+                    VERDICT_WORDS * Long.BYTES).asLongBuffer();
+            return Optional.of(new Contents(ranks, verdicts));
+        } catch (IOException e) {
+            log.warn("Could not read the solution snapshot {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the snapshot, replacing any previous one. Failures are logged, not thrown:
+     * the snapshot only saves the next startup some work.
+     *
+     * @param solutionRanks ranks of the solutions, in the order they should be listed
+     * @param verdictWords  the verdict bitmap, see {@link java.util.BitSet#toLongArray()}
+     */
+    public void save(int[] solutionRanks, long[] verdictWords) {
+        if (path == null) {
+            return;
+        }
+        if (verdictWords.length > VERDICT_WORDS) {
+            throw new IllegalArgumentException("The verdict bitmap has more than " + VERDICT_WORDS + " words.");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize(solutionRanks.length));
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(equationChecksum)
+                .putInt(PermutationRank.PERMUTATION_COUNT)
+                .putInt(solutionRanks.length)
+                .putInt(0);
+        for (int rank : solutionRanks) {
+            buffer.putInt(rank);
+        }
+        for (int i = 0; i < VERDICT_WORDS; i++) {
+            // BitSet.toLongArray drops trailing zero words
+            buffer.putLong(i < verdictWords.length ? verdictWords[i] : 0L);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, buffer.array());
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write the solution snapshot {}", path, e);
+        }
+    }
+
+    private Optional<Contents> rejected(String reason) {
+        log.warn("Ignoring the solution snapshot {}: {}", path, reason);
+        return Optional.empty();
+    }
+
+    private static int fileSize(int solutionCount) {
+        return HEADER_BYTES + solutionCount * Integer.BYTES + VERDICT_WORDS * Long.BYTES + Long.BYTES;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.vietnamesepuzzle.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * One asynchronous solve submitted through {@link SolveJobService}.
+ */
+public class SolveJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final long id;
+    private final SolveMode mode;
+    private final SolveProgress progress = new SolveProgress();
+    private volatile Status status = Status.QUEUED;
+    private volatile long startedAtMs;
+    private volatile long finishedAtMs;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    public SolveJob(long id, SolveMode mode) {
+        this.id = id;
+        this.mode = mode;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public SolveMode getMode() {
+        return mode;
+    }
+
+    public SolveProgress getProgress() {
+        return progress;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    /**
+     * Snapshot of the job for the REST API.
+     *
+     * @return a Map with keys "jobId", "mode", "status", "explored", "persisted", "elapsedMs",
+     * and "result" or "error" once the job is finished
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("jobId", id);
+        view.put("mode", mode);
+        view.put("status", status);
+        view.put("explored", progress.getExplored());
+        view.put("persisted", progress.getPersisted());
+        view.put("elapsedMs", getElapsedMs());
+        if (result != null) {
+            view.put("result", result);
+        }
+        if (error != null) {
+            view.put("error", error);
+        }
+        return view;
+    }
+
+    public long getElapsedMs() {
+        if (startedAtMs == 0) {
+            return 0;
+        }
+        long end = finishedAtMs == 0 ? System.currentTimeMillis() : finishedAtMs;
+        return end - startedAtMs;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    synchronized boolean markRunning() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        startedAtMs = System.currentTimeMillis();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    synchronized void markCompleted(Map<String, Object> result) {
+        this.result = result;
+        finish(Status.COMPLETED);
+    }
+
+    synchronized void markFailed(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    synchronized void markCancelled() {
+        if (!isFinished()) {
+            finish(Status.CANCELLED);
+        }
+    }
+
+    private void finish(Status finalStatus) {
+        finishedAtMs = System.currentTimeMillis();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.vietnamesepuzzle.service;
+
+import java.util.Map;
+
+/**
+ * One event of a solve job's live stream (see {@link SolveJobService#events(SolveJob)}).
+ *
+ * @param name "progress", "solutions" or "done"
+ * @param data the event's payload
+ */
+public record SolveJobEvent(String name, Map<String, Object> data) {
+}
@@ -0,0 +1,207 @@
+package com.example.vietnamesepuzzle.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs solves as background jobs on a bounded, dedicated executor,
+ * so HTTP request threads are never held for the duration of a solve.
+ * Submissions beyond the queue capacity are rejected with a {@link RejectedExecutionException}.
+ */
+@Service
+public class SolveJobService {
+
+    private final PuzzleSolveService puzzleSolveService;
+    private final ThreadPoolExecutor executor;
+    private final int retainedJobs;
+    private final Duration eventInterval;
+    private final int eventBatchSize;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, SolveJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<Long> finishedJobs = new ArrayDeque<>();
+
+    public SolveJobService(PuzzleSolveService puzzleSolveService,
+                           @Value("${puzzle.jobs.threads:1}") int threads,
+                           @Value("${puzzle.jobs.queue-capacity:4}") int queueCapacity,
+                           @Value("${puzzle.jobs.retained:100}") int retainedJobs,
+                           @Value("${puzzle.jobs.events.interval-ms:250}") long eventIntervalMs,
+                           @Value("${puzzle.jobs.events.batch-size:100}") int eventBatchSize) {
+        this.puzzleSolveService = puzzleSolveService;
+        this.retainedJobs = retainedJobs;
+        this.eventInterval = Duration.ofMillis(eventIntervalMs);
+        this.eventBatchSize = eventBatchSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "solve-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues a solve.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public SolveJob submit(SolveMode mode) {
+        SolveJob job = new SolveJob(nextId.getAndIncrement(), mode);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.getId());
+            throw ex;
+        }
+        return job;
+    }
+
+    // Returns the job, or null if it is unknown or no longer retained.
+    public SolveJob getJob(long id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Cancels a queued or running job. A running solve stops at its next candidate;
+     * the attempts it already persisted are kept.
+     *
+     * @return the job, or null if it is unknown
+     */
+    public SolveJob cancel(long id) {
+        SolveJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        job.getProgress().cancel();
+        Future<?> future = job.getFuture();
+        if (future != null && future.cancel(false)) {
+            // Still queued: it will never run
+            job.markCancelled();
+            retire(job);
+        }
+        return job;
+    }
+
+    /**
+     * Live events of a job, sampled from its {@link SolveProgress} once per interval rather than
+     * pushed by the solver, so a subscriber never slows the search down.
+     * Each tick emits a "progress" event with the latest counters and, when solutions were found
+     * since the previous tick, a "solutions" event with up to the configured batch size of them.
+     * Ticks a slow subscriber is not ready for are dropped: the next one carries the latest counters,
+     * and solutions wait in the job's log until they are sent. Once the job is finished, the remaining
+     * solutions and a last "progress" are sent, then a "done" event with the job's snapshot
+     * (see {@link SolveJob#toMap()}) ends the stream.
+     */
+    public Flux<SolveJobEvent> events(SolveJob job) {
+        return Flux.defer(() -> {
+            EventSampler sampler = new EventSampler(job);
+            return Flux.interval(Duration.ZERO, eventInterval)
+                    .onBackpressureDrop()
+                    .concatMapIterable(tick -> sampler.sample(), 1)
+                    .takeUntil(event -> event.name().equals("done"));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.getProgress().cancel());
+        executor.shutdownNow();
+    }
+
+    private void run(SolveJob job) {
+        if (!job.markRunning()) {
+            return;
+        }
+        try {
+            job.markCompleted(puzzleSolveService.generateSolutions(job.getMode(), job.getProgress()));
+        } catch (CancellationException ex) {
+            job.markCancelled();
+        } catch (RuntimeException ex) {
+            job.markFailed(ex.getMessage());
+        } finally {
+            retire(job);
+        }
+    }
+
+    // Keeps the most recent finished jobs available for polling and forgets older ones.
+    private void retire(SolveJob job) {
+        synchronized (finishedJobs) {
+            finishedJobs.addLast(job.getId());
+            while (finishedJobs.size() > retainedJobs) {
+                jobs.remove(finishedJobs.removeFirst());
+            }
+        }
+    }
+
+    // Turns one subscriber's view of a job into events; called for one tick at a time.
+    private class EventSampler {
+
+        private final SolveJob job;
+        private final SolveProgress.SolutionCursor solutions;
+        private long lastExplored;
+        private long lastSampleNanos;
+
+        EventSampler(SolveJob job) {
+            this.job = job;
+            this.solutions = job.getProgress().solutionCursor();
+        }
+
+        List<SolveJobEvent> sample() {
+            // Read before the solutions: every solution of a finished job is then already logged
+            boolean finished = job.isFinished();
+            List<SolveJobEvent> events = new ArrayList<>();
+            events.add(new SolveJobEvent("progress", progress(finished)));
+            List<String> batch = solutions.poll(eventBatchSize);
+            while (!batch.isEmpty()) {
+                events.add(new SolveJobEvent("solutions", Map.of("jobId", job.getId(), "solutions", batch)));
+                batch = finished ? solutions.poll(eventBatchSize) : List.of();
+            }
+            if (finished) {
+                events.add(new SolveJobEvent("done", job.toMap()));
+            }
+            return events;
+        }
+
+        // The rate is measured since the previous sample, or over the whole solve on the first and last ones.
+        private Map<String, Object> progress(boolean finished) {
+            SolveProgress progress = job.getProgress();
+            long explored = progress.getExplored();
+            long elapsedMs = job.getElapsedMs();
+            long now = System.nanoTime();
+            long candidatesPerSecond;
+            if (lastSampleNanos == 0 || finished) {
+                candidatesPerSecond = elapsedMs > 0 ? explored * 1000 / elapsedMs : 0;
+            } else {
+                candidatesPerSecond = (explored - lastExplored) * 1_000_000_000L / Math.max(1, now - lastSampleNanos);
+            }
+            lastExplored = explored;
+            lastSampleNanos = now;
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("jobId", job.getId());
+            data.put("status", job.getStatus());
+            data.put("explored", explored);
+            data.put("persisted", progress.getPersisted());
+            data.put("solutionsFound", progress.getSolutionsFound());
+            data.put("candidatesPerSecond", candidatesPerSecond);
+            data.put("elapsedMs", elapsedMs);
+            return data;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Search strategy used by {@link PuzzleSolveService} when storing attempts.
+ */
+public enum SolveMode {
+    // Constraint-pruned search that stops at the first solution.
+    OPTIMIZED,
+    // Constraint-pruned search that also cuts branches whose bounds cannot reach the right-hand side.
+    BRANCH_AND_BOUND,
+    // All 9! permutations, every one of them stored.
+    NAIVE;
+
+    /**
+     * Parses the "mode" request parameter, case-insensitively.
+     *
+     * @throws InvalidRequestException naming the valid modes for any other value
+     */
+    public static SolveMode fromParameter(String mode) {
+        for (SolveMode solveMode : values()) {
+            if (solveMode.name().equalsIgnoreCase(mode)) {
+                return solveMode;
+            }
+        }
+        throw new InvalidRequestException("Unknown solve mode: " + mode + ". Valid modes are "
+                + Arrays.stream(values()).map(m -> m.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "))
+                + ".");
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.vietnamesepuzzle.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one solve, written by the solver thread and read by pollers.
+ * Also carries the cancellation flag the solver checks between candidates,
+ * and the log of solutions found so far.
+ * <p>
+ * The solution log is an append-only linked list: the solver links each solution in without
+ * locking, and every reader walks it from its own {@link SolutionCursor}, so any number of
+ * readers can follow the solve without ever holding up the solver.
+ */
+public class SolveProgress {
+
+    private final LongAdder explored = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder solutionsFound = new LongAdder();
+    private volatile boolean cancelled;
+
+    // Sentinel head; solutions are linked after it in the order they were found
+    private final SolutionNode head = new SolutionNode(null);
+    private final AtomicReference<SolutionNode> tail = new AtomicReference<>(head);
+
+    public void incrementExplored() {
+        explored.increment();
+    }
+
+    public void addPersisted(int rows) {
+        persisted.add(rows);
+    }
+
+    /**
+     * Appends a solution to the log. Safe to call from several threads; a reader may see
+     * a solution only once the solutions appended before it are linked.
+     */
+    public void addSolution(String solution) {
+        SolutionNode node = new SolutionNode(solution);
+        // The volatile write publishes the node to readers
+        tail.getAndSet(node).next = node;
+        solutionsFound.increment();
+    }
+
+    public long getExplored() {
+        return explored.sum();
+    }
+
+    public long getPersisted() {
+        return persisted.sum();
+    }
+
+    public long getSolutionsFound() {
+        return solutionsFound.sum();
+    }
+
+    // A reader positioned before the first solution.
+    public SolutionCursor solutionCursor() {
+        return new SolutionCursor(head);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * One reader's position in the solution log. Not thread-safe: each reader owns its cursor.
+     */
+    public static final class SolutionCursor {
+
+        private SolutionNode last;
+
+        private SolutionCursor(SolutionNode start) {
+            this.last = start;
+        }
+
+        /**
+         * @return up to {@code max} solutions found since the previous call, oldest first
+         */
+        public List<String> poll(int max) {
+            List<String> solutions = new ArrayList<>();
+            SolutionNode next;
+            while (solutions.size() < max && (next = last.next) != null) {
+                solutions.add(next.solution);
+                last = next;
+            }
+            return solutions;
+        }
+    }
+
+    private static final class SolutionNode {
+
+        private final String solution;
+        private volatile SolutionNode next;
+
+        private SolutionNode(String solution) {
+            this.solution = solution;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.vietnamesepuzzle.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory verdict for every possible attempt input, built once at startup.
+ * Bit {@code r} of the 9! bitset (about 45 KB) is set when the permutation of
+ * Lehmer rank {@code r} solves the equation, so a verdict is a rank computation
+ * and a bit test.
+ * <p>
+ * The bitset and the solution list are saved to a {@link SolutionSnapshot} after they are
+ * computed; when a valid snapshot exists at startup it is mapped instead, without solving
+ * (or verifying) again.
+ */
+@Service
+public class VerdictIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VerdictIndex.class);
+
+    private final ParallelSolveService parallelSolveService;
+    private final PuzzleSolveService puzzleSolveService;
+    private final SolutionSnapshot solutionSnapshot;
+    private final boolean verify;
+    private final long budgetMs;
+
+    // Bit r of word r / 64, on the heap or mapped from the snapshot file
+    private LongBuffer verdicts = LongBuffer.allocate(0);
+    private List<String> solutions = List.of();
+    private boolean fromSnapshot;
+
+    public VerdictIndex(ParallelSolveService parallelSolveService,
+                        PuzzleSolveService puzzleSolveService,
+                        SolutionSnapshot solutionSnapshot,
+                        @Value("${puzzle.verdict-index.verify:true}") boolean verify,
+                        @Value("${puzzle.verdict-index.budget-ms:2000}") long budgetMs) {
+        this.parallelSolveService = parallelSolveService;
+        this.puzzleSolveService = puzzleSolveService;
+        this.solutionSnapshot = solutionSnapshot;
+        this.verify = verify;
+        this.budgetMs = budgetMs;
+    }
+
+    @PostConstruct
+    public void build() {
+        long startTime = System.currentTimeMillis();
+
+        Optional<SolutionSnapshot.Contents> snapshot = solutionSnapshot.load();
+        fromSnapshot = snapshot.isPresent();
+        if (fromSnapshot) {
+            verdicts = snapshot.get().verdictWords();
+            solutions = toAttemptInputs(snapshot.get().solutionRanks());
+        } else {
+            solveAndSave();
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        if (duration > budgetMs) {
+            log.warn("Verdict index built in {} ms, over its {} ms startup budget", duration, budgetMs);
+        } else if (fromSnapshot) {
+            log.info("Verdict index mapped from the solution snapshot in {} ms ({} correct inputs)",
+                    duration, solutions.size());
+        } else {
+            log.info("Verdict index built in {} ms ({} correct inputs, verified: {})",
+                    duration, solutions.size(), verify);
+        }
+    }
+
+    /**
+     * @param rank the Lehmer rank of a valid attempt input, see {@link PermutationRank}
+     * @return whether the permutation solves the equation
+     */
+    public boolean isCorrect(int rank) {
+        if (rank < 0 || rank >= PermutationRank.PERMUTATION_COUNT) {
+            throw new IllegalArgumentException("Rank out of range: " + rank);
+        }
+        return (verdicts.get(rank >>> 6) & (1L << rank)) != 0;
+    }
+
+    public int getSolutionCount() {
+        return solutions.size();
+    }
+
+    // Every correct input, in solver order.
+    public List<String> getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * @return a Map with keys "solutions" (List of String), "count" (Integer) and
+     * "source" ("snapshot" or "solver")
+     */
+    public Map<String, Object> getKnownSolutions() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("solutions", solutions);
+        result.put("count", solutions.size());
+        result.put("source", fromSnapshot ? "snapshot" : "solver");
+        return result;
+    }
+
+    // Whether the index was mapped from the snapshot file rather than solved at startup.
+    public boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    // The exact solver yields the (few) correct inputs; every other bit stays clear.
+    private void solveAndSave() {
+        List<String> found = parallelSolveService.findAllSolutions();
+        BitSet bits = new BitSet(PermutationRank.PERMUTATION_COUNT);
+        int[] ranks = new int[found.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = PermutationRank.rank(found.get(i));
+            bits.set(ranks[i]);
+        }
+        long[] words = bits.toLongArray();
+        verdicts = LongBuffer.wrap(Arrays.copyOf(words, SolutionSnapshot.VERDICT_WORDS));
+        solutions = Collections.unmodifiableList(new ArrayList<>(found));
+
+        if (verify) {
+            verifyAgainstEvaluateExpression();
+        }
+        solutionSnapshot.save(ranks, words);
+    }
+
+    private static List<String> toAttemptInputs(int[] ranks) {
+        List<String> attemptInputs = new ArrayList<>(ranks.length);
+        int[] digits = new int[9];
+        for (int rank : ranks) {
+            PermutationRank.unrank(rank, digits);
+            StringBuilder input = new StringBuilder(9);
+            for (int digit : digits) {
+                input.append(digit);
+            }
+            attemptInputs.add(input.toString());
+        }
+        return Collections.unmodifiableList(attemptInputs);
+    }
+
+    // Walks all 9! permutations in rank order and compares each bit with evaluateExpression.
+    private void verifyAgainstEvaluateExpression() {
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        PermutationCursor cursor = new PermutationCursor(9).reset(digits, 9, 9);
+        int rank = 0;
+        while (cursor.next()) {
+            if (puzzleSolveService.evaluateExpression(cursor.values()) != isCorrect(rank)) {
+                throw new IllegalStateException(
+                        "Verdict index disagrees with evaluateExpression at rank " + rank);
+            }
+            rank++;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.ReactiveAttemptRepository;
+import com.example.vietnamesepuzzle.service.AttemptStatistics;
+import com.example.vietnamesepuzzle.service.AttemptValidation;
+import com.example.vietnamesepuzzle.service.NearestSolutionIndex;
+import com.example.vietnamesepuzzle.service.PuzzleMetrics;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.ReactiveAttemptService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAttemptServiceTest {
+
+    @Mock
+    private ReactiveAttemptRepository attemptRepository;
+
+    // The real business rules, as the reactive service reuses them unchanged
+    @Spy
+    private AttemptValidation attemptValidation = new AttemptValidation();
+
+    @Mock
+    private PuzzleSolveService puzzleSolveService;
+
+    @Mock
+    private PuzzleMetrics puzzleMetrics;
+
+    @Mock
+    private AttemptStatistics attemptStatistics;
+
+    @Mock
+    private NearestSolutionIndex nearestSolutionIndex;
+
+    @InjectMocks
+    private ReactiveAttemptService attemptService;
+
+    @Test
+    void testCreateAttempt_ValidInput_ShouldEvaluateAndInsert() {
+        given(puzzleSolveService.evaluateExpression(new int[]{1, 7, 4, 3, 6, 5, 8, 2, 9})).willReturn(true);
+        given(attemptRepository.insert("174365829", true))
+                .willReturn(Mono.just(new Attempt(1L, "174365829", true)));
+
+        StepVerifier.create(attemptService.createAttempt(new Attempt(null, "174365829", null)))
+                .expectNextMatches(creation -> creation.created()
+                        && creation.attempt().getId() == 1L && creation.attempt().getCorrect())
+                .verifyComplete();
+        verify(puzzleMetrics).attemptCreated(true);
+        verify(attemptStatistics).created(true);
+    }
+
+    @Test
+    void testCreateAttempt_StoredInput_ShouldReturnStoredAttempt() {
+        given(puzzleSolveService.evaluateExpression(any(int[].class))).willReturn(true);
+        given(attemptRepository.insert("174365829", true))
+                .willReturn(Mono.error(new DuplicateKeyException("unique")));
+        given(attemptRepository.findByAttemptInput("174365829"))
+                .willReturn(Mono.just(new Attempt(7L, "174365829", true)));
+
+        StepVerifier.create(attemptService.createAttempt(new Attempt(null, "174365829", null)))
+                .expectNextMatches(creation -> !creation.created() && creation.attempt().getId() == 7L)
+                .verifyComplete();
+        verify(puzzleMetrics, never()).attemptCreated(anyBoolean());
+    }
+
+    @Test
+    void testCreateAttempt_IncorrectInput_ShouldCarryTheNearestSolution() {
+        Map<String, Object> nearest = Map.of("solution", "174365829", "swapDistance", 1);
+        given(puzzleSolveService.evaluateExpression(any(int[].class))).willReturn(false);
+        given(attemptRepository.insert("174365892", false))
+                .willReturn(Mono.just(new Attempt(2L, "174365892", false)));
+        given(nearestSolutionIndex.nearest(new int[]{1, 7, 4, 3, 6, 5, 8, 9, 2})).willReturn(nearest);
+
+        StepVerifier.create(attemptService.createAttempt(new Attempt(null, "174365892", null)))
+                .expectNextMatches(creation -> creation.attempt().getNearestSolution() == nearest)
+                .verifyComplete();
+        // Decoded once, for both the verdict and the nearest solution
+        verify(attemptValidation).decodeAttemptInput(eq("174365892"), any(int[].class));
+    }
+
+    @Test
+    void testCreateAttempt_InvalidInput_ShouldFailWithoutInserting() {
+        StepVerifier.create(attemptService.createAttempt(new Attempt(null, "123456788", null)))
+                .expectError(InvalidRequestException.class)
+                .verify();
+        verify(attemptRepository, never()).insert(anyString(), anyBoolean());
+        verify(puzzleSolveService, never()).evaluateExpression(any(int[].class));
+    }
+
+    @Test
+    void testUpdateAttempt_UnknownId_ShouldBeEmpty() {
+        given(attemptRepository.findById(42L)).willReturn(Mono.empty());
+
+        StepVerifier.create(attemptService.updateAttempt(42L, new Attempt(null, "174365829", null)))
+                .verifyComplete();
+        verify(attemptRepository, never()).update(anyLong(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void testUpdateAttempt_ExistingId_ShouldStoreTheNewVerdict() {
+        given(attemptRepository.findById(7L)).willReturn(Mono.just(new Attempt(7L, "123456789", false)));
+        given(puzzleSolveService.evaluateExpression(any(int[].class))).willReturn(true);
+        given(attemptRepository.update(7L, "174365829", true)).willReturn(Mono.just(1L));
+
+        StepVerifier.create(attemptService.updateAttempt(7L, new Attempt(null, "174365829", null)))
+                .expectNextMatches(attempt -> attempt.getId() == 7L
+                        && attempt.getAttemptInput().equals("174365829") && attempt.getCorrect())
+                .verifyComplete();
+        verify(attemptStatistics).updated(false, true);
+    }
+
+    @Test
+    void testDeleteAttempt_ShouldCountTheDeletedVerdict() {
+        given(attemptRepository.deleteById(7L)).willReturn(Mono.just(true));
+        given(attemptRepository.deleteById(8L)).willReturn(Mono.empty());
+
+        StepVerifier.create(attemptService.deleteAttempt(7L)).verifyComplete();
+        StepVerifier.create(attemptService.deleteAttempt(8L)).verifyComplete();
+
+        verify(attemptStatistics, times(1)).deleted(true);
+        verify(attemptStatistics, never()).deleted(false);
+    }
+
+    @Test
+    void testGetAllAttempts_ShouldHonourBackpressure() {
+        given(attemptRepository.findAll()).willReturn(Flux.range(1, 100)
+                .map(i -> new Attempt((long) i, "123456789", false)));
+
+        StepVerifier.create(attemptService.getAllAttempts(), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+}
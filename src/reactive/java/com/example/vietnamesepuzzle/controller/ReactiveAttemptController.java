@@ -0,0 +1,84 @@
+package com.example.vietnamesepuzzle.controller;
+
+import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.service.ReactiveAttemptService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the attempt CRUD routes of {@link AttemptController}, served by WebFlux
+ * over R2DBC when the application runs as a reactive web application (the "reactive" profile).
+ * Paths, bodies and status codes are the same.
+ */
+@RestController
+@RequestMapping("/api/attempts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAttemptController {
+
+    private final ReactiveAttemptService attemptService;
+
+    public ReactiveAttemptController(ReactiveAttemptService attemptService) {
+        this.attemptService = attemptService;
+    }
+
+    /**
+     * GET /api/attempts
+     * All attempts, as a JSON array or (with Accept: application/x-ndjson) one per line.
+     * Rows are read from the database as the client consumes them.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Attempt> getAllAttempts() {
+        return attemptService.getAllAttempts();
+    }
+
+    // POST create a new attempt: 201 with the new attempt, or 200 with the stored one for an input already submitted.
+    @PostMapping
+    public Mono<ResponseEntity<Attempt>> createAttempt(@RequestBody Attempt attempt) {
+        return attemptService.createAttempt(attempt)
+                .map(creation -> new ResponseEntity<>(creation.attempt(),
+                        creation.created() ? HttpStatus.CREATED : HttpStatus.OK));
+    }
+
+    // GET attempt counts and creation rate, from in-memory counters (see AttemptController#getStatistics()).
+    @GetMapping("/stats")
+    public Map<String, Object> getStatistics() {
+        return attemptService.getStatistics();
+    }
+
+    // GET an attempt by its id.
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Attempt>> getAttemptById(@PathVariable Long id) {
+        return attemptService.getAttemptById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // PUT update an existing attempt.
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Attempt>> updateAttempt(@PathVariable Long id, @RequestBody Attempt attemptDetails) {
+        return attemptService.updateAttempt(id, attemptDetails)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // DELETE an attempt by its id.
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteAttempt(@PathVariable Long id) {
+        return attemptService.deleteAttempt(id);
+    }
+
+    // DELETE all attempts.
+    @DeleteMapping()
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteAllAttempts() {
+        return attemptService.deleteAllAttempts();
+    }
+}
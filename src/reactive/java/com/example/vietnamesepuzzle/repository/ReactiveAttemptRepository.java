@@ -0,0 +1,123 @@
+package com.example.vietnamesepuzzle.repository;
+
+import com.example.vietnamesepuzzle.model.Attempt;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking access to the attempts table over R2DBC, for the reactive stack.
+ * The table is the one Hibernate creates for {@link Attempt}; the two stacks share the database.
+ * <p>
+ * Ids come from the same {@code attempts_seq} sequence as JPA's. Hibernate reserves blocks of
+ * {@code allocationSize} ids per sequence value, so each reactive insert takes one sequence value
+ * as its id: it never falls in a block Hibernate reserved, at the cost of gaps between ids.
+ * Rows written here bypass the Hibernate second-level cache.
+ * <p>
+ * The in-memory H2 driver runs each statement synchronously on the subscribing thread, and the
+ * connection pool hands a released connection to the next waiting subscriber on the releasing
+ * thread. Under load one thread then kept serving other subscribers' statements while the work
+ * queued on it (a Netty event loop's connections, in the load test) waited until the load
+ * stopped. Subscribing on a single dedicated thread keeps the pool's waiters in arrival order;
+ * H2 in memory is CPU-bound, so this costs no throughput on the load test.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAttemptRepository {
+
+    private final DatabaseClient databaseClient;
+    private final Scheduler databaseScheduler = Schedulers.newSingle("r2dbc-h2", true);
+
+    public ReactiveAttemptRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        databaseScheduler.dispose();
+    }
+
+    // All attempts in id order, emitted as the subscriber requests them.
+    public Flux<Attempt> findAll() {
+        return databaseClient.sql("SELECT id, attempt_input, correct FROM attempts ORDER BY id")
+                .map(ReactiveAttemptRepository::toAttempt)
+                .all()
+                .subscribeOn(databaseScheduler);
+    }
+
+    public Mono<Attempt> findById(Long id) {
+        return databaseClient.sql("SELECT id, attempt_input, correct FROM attempts WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveAttemptRepository::toAttempt)
+                .one()
+                .subscribeOn(databaseScheduler);
+    }
+
+    public Mono<Attempt> findByAttemptInput(String attemptInput) {
+        return databaseClient.sql("SELECT id, attempt_input, correct FROM attempts WHERE attempt_input = :attemptInput")
+                .bind("attemptInput", attemptInput)
+                .map(ReactiveAttemptRepository::toAttempt)
+                .one()
+                .subscribeOn(databaseScheduler);
+    }
+
+    /**
+     * Inserts a new attempt.
+     *
+     * @return the attempt with its generated id; fails with a DataIntegrityViolationException
+     * when the input is already stored
+     */
+    public Mono<Attempt> insert(String attemptInput, boolean correct) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR attempts_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient
+                        .sql("INSERT INTO attempts (id, attempt_input, correct) VALUES (:id, :attemptInput, :correct)")
+                        .bind("id", id)
+                        .bind("attemptInput", attemptInput)
+                        .bind("correct", correct)
+                        .then()
+                        .thenReturn(new Attempt(id, attemptInput, correct)))
+                .subscribeOn(databaseScheduler);
+    }
+
+    /**
+     * @return the number of rows updated (0 when no attempt has this id)
+     */
+    public Mono<Long> update(Long id, String attemptInput, boolean correct) {
+        return databaseClient.sql("UPDATE attempts SET attempt_input = :attemptInput, correct = :correct WHERE id = :id")
+                .bind("id", id)
+                .bind("attemptInput", attemptInput)
+                .bind("correct", correct)
+                .fetch()
+                .rowsUpdated()
+                .subscribeOn(databaseScheduler);
+    }
+
+    /**
+     * @return the correct flag of the deleted attempt, read in the same statement (empty when no
+     * attempt has this id)
+     */
+    public Mono<Boolean> deleteById(Long id) {
+        return databaseClient.sql("SELECT correct FROM OLD TABLE (DELETE FROM attempts WHERE id = :id)")
+                .bind("id", id)
+                .map(row -> row.get("correct", Boolean.class))
+                .one()
+                .subscribeOn(databaseScheduler);
+    }
+
+    public Mono<Void> deleteAll() {
+        return databaseClient.sql("DELETE FROM attempts").then().subscribeOn(databaseScheduler);
+    }
+
+    private static Attempt toAttempt(Readable row) {
+        return new Attempt(row.get("id", Long.class), row.get("attempt_input", String.class),
+                row.get("correct", Boolean.class));
+    }
+}
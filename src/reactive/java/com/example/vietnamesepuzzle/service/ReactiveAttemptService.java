@@ -0,0 +1,131 @@
+package com.example.vietnamesepuzzle.service;
+
+import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.ReactiveAttemptRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+/**
+ * Attempt CRUD for the reactive stack, with the same rules as {@link AttemptService}:
+ * inputs are decoded by {@link AttemptValidation} and judged by
+ * {@link PuzzleSolveService#evaluateExpression(int[])}.
+ * Both are CPU-only, so they run on the calling thread without blocking it.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAttemptService {
+
+    private final ReactiveAttemptRepository attemptRepository;
+    private final AttemptValidation attemptValidation;
+    private final PuzzleSolveService puzzleSolveService;
+    private final PuzzleMetrics puzzleMetrics;
+    private final AttemptStatistics attemptStatistics;
+    private final NearestSolutionIndex nearestSolutionIndex;
+
+    public ReactiveAttemptService(ReactiveAttemptRepository attemptRepository,
+                                  AttemptValidation attemptValidation,
+                                  PuzzleSolveService puzzleSolveService,
+                                  PuzzleMetrics puzzleMetrics,
+                                  AttemptStatistics attemptStatistics,
+                                  NearestSolutionIndex nearestSolutionIndex) {
+        this.attemptRepository = attemptRepository;
+        this.attemptValidation = attemptValidation;
+        this.puzzleSolveService = puzzleSolveService;
+        this.puzzleMetrics = puzzleMetrics;
+        this.attemptStatistics = attemptStatistics;
+        this.nearestSolutionIndex = nearestSolutionIndex;
+    }
+
+    // Retrieve all attempts, at the pace the subscriber requests them.
+    public Flux<Attempt> getAllAttempts() {
+        return attemptRepository.findAll();
+    }
+
+    // Retrieve an attempt by its id (empty if none).
+    public Mono<Attempt> getAttemptById(Long id) {
+        return attemptRepository.findById(id);
+    }
+
+    /**
+     * Create a new attempt, or return the stored one if its input was already submitted;
+     * an invalid input fails with an InvalidRequestException.
+     * New inputs are inserted directly: an insert that hits the unique constraint (a duplicate,
+     * concurrent or not) reads the stored row instead.
+     * An incorrect attempt is returned with its nearest solution (see {@link NearestSolutionIndex}),
+     * looked up from the digits decoded with the input.
+     */
+    public Mono<AttemptCreation> createAttempt(Attempt attempt) {
+        String attemptInput = attempt.getAttemptInput();
+        return decodeAttemptInput(attemptInput)
+                .flatMap(digits -> attemptRepository.insert(attemptInput, puzzleSolveService.evaluateExpression(digits))
+                        .doOnNext(saved -> {
+                            puzzleMetrics.attemptCreated(saved.getCorrect());
+                            attemptStatistics.created(saved.getCorrect());
+                        })
+                        .map(saved -> new AttemptCreation(saved, true))
+                        .onErrorResume(DataIntegrityViolationException.class, ex -> attemptRepository
+                                .findByAttemptInput(attemptInput)
+                                .map(existing -> new AttemptCreation(existing, false))
+                                .switchIfEmpty(Mono.error(ex)))
+                        .doOnNext(creation -> addNearestSolution(creation, digits)));
+    }
+
+    // Update an existing attempt (empty if none).
+    public Mono<Attempt> updateAttempt(Long id, Attempt attemptDetails) {
+        String attemptInput = attemptDetails.getAttemptInput();
+        return attemptRepository.findById(id)
+                .flatMap(existing -> evaluateAttemptInput(attemptInput)
+                        .flatMap(isCorrect -> attemptRepository.update(id, attemptInput, isCorrect)
+                                .filter(updated -> updated > 0)
+                                .doOnNext(updated -> attemptStatistics.updated(
+                                        Boolean.TRUE.equals(existing.getCorrect()), isCorrect))
+                                .map(updated -> new Attempt(id, attemptInput, isCorrect))));
+    }
+
+    // Delete an attempt by its id.
+    public Mono<Void> deleteAttempt(Long id) {
+        return attemptRepository.deleteById(id)
+                .doOnNext(attemptStatistics::deleted)
+                .then();
+    }
+
+    // Delete all attempts, then recount them (a blocking JPA query, off the event loop).
+    public Mono<Void> deleteAllAttempts() {
+        return attemptRepository.deleteAll()
+                .then(Mono.fromRunnable(attemptStatistics::reconcile).subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+
+    // Attempt counts and creation rate, see AttemptStatistics#getStatistics().
+    public Map<String, Object> getStatistics() {
+        return attemptStatistics.getStatistics();
+    }
+
+    // Validates and decodes the input in one pass.
+    private Mono<int[]> decodeAttemptInput(String attemptInput) {
+        return Mono.fromCallable(() -> {
+            int[] digits = new int[9];
+            attemptValidation.decodeAttemptInput(attemptInput, digits);
+            return digits;
+        });
+    }
+
+    // Decodes the input, then evaluates the equation on its digits.
+    private Mono<Boolean> evaluateAttemptInput(String attemptInput) {
+        return decodeAttemptInput(attemptInput).map(puzzleSolveService::evaluateExpression);
+    }
+
+    // CPU-only, like the verdict: a BK-tree lookup over the solutions.
+    private void addNearestSolution(AttemptCreation creation, int[] digits) {
+        Attempt attempt = creation.attempt();
+        if (!Boolean.TRUE.equals(attempt.getCorrect())) {
+            attempt.setNearestSolution(nearestSolutionIndex.nearest(digits));
+        }
+    }
+}
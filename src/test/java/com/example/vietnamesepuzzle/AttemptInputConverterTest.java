@@ -0,0 +1,37 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.model.AttemptInputPackedConverter;
+import com.example.vietnamesepuzzle.model.AttemptInputRankConverter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttemptInputConverterTest {
+
+    @Test
+    void testRankConverter_ShouldRoundTrip() {
+        AttemptInputRankConverter converter = new AttemptInputRankConverter();
+
+        assertEquals(0, converter.convertToDatabaseColumn("123456789"));
+        assertEquals(362879, converter.convertToDatabaseColumn("987654321"));
+        assertEquals("174365829", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("174365829")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testRankConverter_InvalidInput_ShouldThrowException() {
+        AttemptInputRankConverter converter = new AttemptInputRankConverter();
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn("112345678"));
+    }
+
+    @Test
+    void testPackedConverter_ShouldRoundTrip() {
+        AttemptInputPackedConverter converter = new AttemptInputPackedConverter();
+
+        assertEquals(174365829, converter.convertToDatabaseColumn("174365829"));
+        assertEquals("987654321", converter.convertToEntityAttribute(987654321));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn("12345678"));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn("12345678x"));
+    }
+}
@@ -1,21 +1,41 @@
 package com.example.vietnamesepuzzle;
 
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
 import com.example.vietnamesepuzzle.model.Attempt;
+import com.example.vietnamesepuzzle.repository.AttemptBatchWriter;
 import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import com.example.vietnamesepuzzle.service.AttemptCreation;
 import com.example.vietnamesepuzzle.service.AttemptService;
-import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.AttemptStatistics;
 import com.example.vietnamesepuzzle.service.AttemptValidation;
-import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.NearestSolutionIndex;
+import com.example.vietnamesepuzzle.service.PuzzleMetrics;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,23 +47,35 @@ class AttemptServiceTest {
     @Mock
     private AttemptRepository attemptRepository;
 
-    // Since AttemptService calls AttemptValidation, AttemptUtils, and PuzzleSolveService,
-    // we can mock them as well to ensure pure unit tests.
     @Mock
-    private AttemptValidation attemptValidation;
+    private AttemptBatchWriter attemptBatchWriter;
+
+    // AttemptService decodes inputs with the real AttemptValidation (a pure function),
+    // and reads verdicts from a mocked VerdictIndex.
+    @Spy
+    private AttemptValidation attemptValidation = new AttemptValidation();
+
+    @Mock
+    private VerdictIndex verdictIndex;
 
     @Mock
-    private AttemptUtils attemptUtils;
+    private EntityManager entityManager;
 
     @Mock
-    private PuzzleSolveService puzzleSolveService;
+    private PuzzleMetrics puzzleMetrics;
+
+    @Mock
+    private AttemptStatistics attemptStatistics;
+
+    @Mock
+    private NearestSolutionIndex nearestSolutionIndex;
 
     @InjectMocks
     private AttemptService attemptService;
 
     @BeforeEach
     void setUp() {
-        Mockito.reset(attemptRepository, attemptValidation, attemptUtils, puzzleSolveService);
+        Mockito.reset(attemptRepository, attemptBatchWriter, attemptValidation, verdictIndex, entityManager, puzzleMetrics);
     }
 
     @Test
@@ -52,15 +84,8 @@ class AttemptServiceTest {
         Attempt attempt = new Attempt();
         attempt.setAttemptInput("123456789");
 
-        // Simulate successful validation (no exception thrown)
-        willDoNothing().given(attemptValidation).validateAttemptInput("123456789");
-
-        // Simulate converting the string into a list of Integers
-        given(attemptUtils.convertStringToIntegerList("123456789"))
-                .willReturn(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9));
-
-        // Simulate evaluateExpression returning false (not a valid puzzle solution)
-        given(puzzleSolveService.evaluateExpression(anyList())).willReturn(false);
+        // "123456789" is the permutation of rank 0; simulate it not being a valid puzzle solution
+        given(verdictIndex.isCorrect(0)).willReturn(false);
 
         // Simulate the repository saving the attempt
         Attempt savedAttempt = new Attempt();
@@ -70,33 +95,191 @@ class AttemptServiceTest {
         given(attemptRepository.save(any(Attempt.class))).willReturn(savedAttempt);
 
         // When
-        Attempt result = attemptService.createAttempt(attempt);
+        AttemptCreation creation = attemptService.createAttempt(attempt);
+        Attempt result = creation.attempt();
 
         // Then
-        verify(attemptValidation).validateAttemptInput("123456789");
-        verify(attemptUtils).convertStringToIntegerList("123456789");
-        verify(puzzleSolveService).evaluateExpression(anyList());
+        // The input is validated, ranked and decoded in a single pass, reused for the nearest solution
+        verify(attemptValidation).decodeAttemptInput(eq("123456789"), any(int[].class));
+        verify(verdictIndex).isCorrect(0);
+        // A first submission is inserted without a lookup
+        verify(attemptRepository, never()).findByAttemptInput(anyString());
         verify(attemptRepository).save(any(Attempt.class));
+        verify(puzzleMetrics).attemptCreated(false);
+        verify(attemptStatistics).created(false);
+        // An incorrect attempt comes back with its nearest solution
+        verify(nearestSolutionIndex).nearest(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
 
+        assertTrue(creation.created());
         assertNotNull(result.getId());
         assertEquals("123456789", result.getAttemptInput());
-        // 'correct' is false as per the stub from puzzleSolveService
+        // 'correct' is false as per the stub from verdictIndex
         assertFalse(result.getCorrect());
     }
 
+    @Test
+    void testCreateAttempt_ClientSuppliedId_ShouldInsertAFreshAttempt() {
+        given(attemptRepository.save(any(Attempt.class))).willAnswer(invocation -> {
+            Attempt attempt = invocation.getArgument(0);
+            return new Attempt(43L, attempt.getAttemptInput(), attempt.getCorrect());
+        });
+
+        AttemptCreation creation = attemptService.createAttempt(new Attempt(2030L, "123456789", true));
+
+        // Saving an entity with an id would merge it over the stored row 2030
+        verify(attemptRepository).save(argThat(attempt -> attempt.getId() == null && !attempt.getCorrect()));
+        assertTrue(creation.created());
+        assertEquals(43L, creation.attempt().getId());
+    }
+
+    @Test
+    void testCreateAttempt_SubmittedTwice_ShouldReturnStoredAttemptWithoutSaving() {
+        Attempt stored = new Attempt(7L, "174365829", true);
+        given(attemptRepository.save(any(Attempt.class))).willReturn(stored);
+        attemptService.createAttempt(new Attempt(null, "174365829", null));
+        given(attemptRepository.findByAttemptInput("174365829")).willReturn(Optional.of(stored));
+
+        AttemptCreation creation = attemptService.createAttempt(new Attempt(null, "174365829", null));
+
+        assertFalse(creation.created());
+        assertSame(stored, creation.attempt());
+        verify(attemptRepository, times(1)).save(any(Attempt.class));
+        verify(puzzleMetrics, times(1)).attemptCreated(anyBoolean());
+    }
+
+    @Test
+    void testCreateAttempt_InsertHitsUniqueConstraint_ShouldReturnStoredAttempt() {
+        // Stored meanwhile by a batch, which does not take the creation locks
+        Attempt stored = new Attempt(7L, "174365829", true);
+        given(attemptRepository.findByAttemptInput("174365829")).willReturn(Optional.of(stored));
+        given(attemptRepository.save(any(Attempt.class))).willThrow(new DataIntegrityViolationException("unique"));
+
+        AttemptCreation creation = attemptService.createAttempt(new Attempt(null, "174365829", null));
+
+        assertFalse(creation.created());
+        assertSame(stored, creation.attempt());
+    }
+
+    @Test
+    void testCreateAttempt_ConcurrentDuplicates_ShouldInsertOnce() throws Exception {
+        // A repository enforcing the unique constraint on a map
+        Map<String, Attempt> table = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        given(attemptRepository.findByAttemptInput(anyString()))
+                .willAnswer(inv -> Optional.ofNullable(table.get(inv.<String>getArgument(0))));
+        given(attemptRepository.save(any(Attempt.class))).willAnswer(inv -> {
+            Attempt attempt = inv.getArgument(0);
+            Thread.sleep(1); // widen the race window
+            Attempt row = new Attempt(ids.incrementAndGet(), attempt.getAttemptInput(), attempt.getCorrect());
+            if (table.putIfAbsent(attempt.getAttemptInput(), row) != null) {
+                throw new DataIntegrityViolationException("unique");
+            }
+            return row;
+        });
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AttemptCreation>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads * 4; i++) {
+                String attemptInput = i % 2 == 0 ? "174365829" : "123456789";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return attemptService.createAttempt(new Attempt(null, attemptInput, null));
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<AttemptCreation> future : futures) {
+                AttemptCreation creation = future.get(10, TimeUnit.SECONDS);
+                assertSame(table.get(creation.attempt().getAttemptInput()), creation.attempt());
+                created += creation.created() ? 1 : 0;
+            }
+            // One insert per input; every other call got the stored row
+            assertEquals(2, created);
+            verify(attemptRepository, times(2)).save(any(Attempt.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCreateAttempts_ShouldReportEachItemAndInsertOnlyNewOnes() {
+        // Given: a new input, an input already stored, an in-batch duplicate and an invalid input
+        given(verdictIndex.isCorrect(anyInt())).willReturn(false);
+        given(attemptRepository.findExistingAttemptInputs(anyCollection())).willReturn(List.of("123456798"));
+        given(attemptBatchWriter.insertAll(anyList())).willAnswer(invocation -> {
+            List<Attempt> attempts = invocation.getArgument(0);
+            attempts.forEach(attempt -> attempt.setId(42L));
+            return attempts.size();
+        });
+
+        // When
+        List<Map<String, Object>> results = attemptService.createAttempts(
+                Arrays.asList("123456789", "123456798", "123456789", "112345678"));
+
+        // Then
+        assertEquals(List.of("CREATED", "DUPLICATE", "DUPLICATE", "INVALID"),
+                results.stream().map(result -> result.get("status")).toList());
+        assertEquals(42L, results.get(0).get("id"));
+        assertEquals(false, results.get(0).get("isCorrect"));
+        assertEquals("Duplicate digit detected in attempt input: 1", results.get(3).get("error"));
+        // One existence query and one batched insert holding the single new attempt
+        verify(attemptRepository).findExistingAttemptInputs(anyCollection());
+        verify(attemptBatchWriter).insertAll(argThat(attempts -> attempts.size() == 1));
+        verify(attemptRepository, never()).save(any(Attempt.class));
+        verify(puzzleMetrics).attemptCreated(false);
+        // Each input is validated and ranked once
+        verify(attemptValidation, times(4)).decodeAttemptInput(anyString(), isNull());
+    }
+
+    @Test
+    void testCreateAttempts_InputStoredConcurrently_ShouldReportItAsDuplicate() {
+        // Given: "123456798" is stored by a concurrent create after the first existence check
+        given(attemptRepository.findExistingAttemptInputs(anyCollection()))
+                .willReturn(List.of())
+                .willReturn(List.of("123456798"));
+        // The ids of each insert's attempts, as passed
+        List<List<Long>> inserts = new ArrayList<>();
+        given(attemptBatchWriter.insertAll(anyList())).willAnswer(invocation -> {
+            List<Attempt> attempts = invocation.getArgument(0);
+            inserts.add(attempts.stream().map(Attempt::getId).toList());
+            // Ids are assigned on persist, before the flush hits the unique constraint
+            attempts.forEach(attempt -> attempt.setId(42L));
+            if (inserts.size() == 1) {
+                throw new DataIntegrityViolationException("Unique index or primary key violation");
+            }
+            return attempts.size();
+        });
+
+        // When
+        List<Map<String, Object>> results = attemptService.createAttempts(List.of("123456789", "123456798"));
+
+        // Then: the batch is checked and inserted again, without the input stored meanwhile
+        assertEquals(List.of("CREATED", "DUPLICATE"), results.stream().map(result -> result.get("status")).toList());
+        assertEquals(2, inserts.size());
+        assertEquals(Collections.singletonList(null), inserts.get(1));
+        verify(puzzleMetrics, times(1)).attemptCreated(anyBoolean());
+        verify(attemptStatistics).created(0L, 1L);
+    }
+
+    @Test
+    void testCreateAttempts_TooManyItems_ShouldThrowException() {
+        List<String> inputs = Collections.nCopies(AttemptService.MAX_BATCH_SIZE + 1, "123456789");
+
+        assertThrows(InvalidRequestException.class, () -> attemptService.createAttempts(inputs));
+        verify(attemptBatchWriter, never()).insertAll(anyList());
+    }
+
     @Test
     void testCreateAttempt_EmptyInput_ShouldThrowException() {
         // Given
         Attempt attempt = new Attempt();
         attempt.setAttemptInput("   ");
 
-        // Simulate that validation will throw an exception
-        willThrow(new IllegalArgumentException("The attempt input must not be empty."))
-                .given(attemptValidation)
-                .validateAttemptInput("   ");
-
         // When / Then
-        Throwable ex = assertThrows(IllegalArgumentException.class,
+        Throwable ex = assertThrows(InvalidRequestException.class,
                 () -> attemptService.createAttempt(attempt));
         assertEquals("The attempt input must not be empty.", ex.getMessage());
 
@@ -104,6 +287,19 @@ class AttemptServiceTest {
         verify(attemptRepository, never()).save(any(Attempt.class));
     }
 
+    @Test
+    void testCreateAttempt_InvalidInput_ShouldNotConsultVerdictIndex() {
+        // Given
+        Attempt attempt = new Attempt();
+        attempt.setAttemptInput("112345678");
+
+        // When / Then
+        Throwable ex = assertThrows(InvalidRequestException.class, () -> attemptService.createAttempt(attempt));
+        assertEquals("Duplicate digit detected in attempt input: 1", ex.getMessage());
+        verify(verdictIndex, never()).isCorrect(anyInt());
+        verify(attemptRepository, never()).save(any(Attempt.class));
+    }
+
     @Test
     void testGetAttemptById_ExistingId_ShouldReturnAttempt() {
         // Given
@@ -151,15 +347,8 @@ class AttemptServiceTest {
         // Repository findById
         given(attemptRepository.findById(1L)).willReturn(Optional.of(existingAttempt));
 
-        // Validation
-        willDoNothing().given(attemptValidation).validateAttemptInput("987654321");
-
-        // Conversion
-        given(attemptUtils.convertStringToIntegerList("987654321"))
-                .willReturn(Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1));
-
-        // Evaluate expression -> let's say it returns true now
-        given(puzzleSolveService.evaluateExpression(anyList())).willReturn(true);
+        // "987654321" is the last permutation (rank 9! - 1) -> let's say it is correct now
+        given(verdictIndex.isCorrect(362879)).willReturn(true);
 
         // Save
         given(attemptRepository.save(any(Attempt.class))).willAnswer(inv -> inv.getArgument(0));
@@ -169,10 +358,9 @@ class AttemptServiceTest {
 
         // Then
         verify(attemptRepository).findById(1L);
-        verify(attemptValidation).validateAttemptInput("987654321");
-        verify(attemptUtils).convertStringToIntegerList("987654321");
-        verify(puzzleSolveService).evaluateExpression(anyList());
+        verify(verdictIndex).isCorrect(362879);
         verify(attemptRepository).save(any(Attempt.class));
+        verify(attemptStatistics).updated(false, true);
 
         assertNotNull(updated);
         assertEquals("987654321", updated.getAttemptInput());
@@ -196,13 +384,76 @@ class AttemptServiceTest {
         assertNull(updated);
     }
 
+    @Test
+    void testGetAttemptsPage_ShouldUseKeysetQuery() {
+        // Given
+        Attempt attempt = new Attempt(11L, "123456789", false);
+        given(attemptRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any()))
+                .willReturn(List.of(attempt));
+
+        // When
+        List<Attempt> page = attemptService.getAttemptsPage(10L, 50, null);
+
+        // Then
+        assertEquals(List.of(attempt), page);
+        verify(attemptRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAttemptsPage_WithCorrectFilter_ShouldStartFromFirstId() {
+        // When
+        attemptService.getAttemptsPage(null, 50, true);
+
+        // Then
+        verify(attemptRepository).findByCorrectAndIdGreaterThanOrderByIdAsc(eq(true), eq(0L), any());
+    }
+
+    @Test
+    void testGetAttemptsPage_InvalidLimit_ShouldThrowException() {
+        assertThrows(InvalidRequestException.class, () -> attemptService.getAttemptsPage(null, 0, null));
+        assertThrows(InvalidRequestException.class,
+                () -> attemptService.getAttemptsPage(null, AttemptService.MAX_PAGE_SIZE + 1, null));
+    }
+
+    @Test
+    void testForEachAttempt_ShouldConsumeAndDetachEachRow() {
+        // Given
+        Attempt first = new Attempt(1L, "123456789", false);
+        Attempt second = new Attempt(2L, "174365829", true);
+        given(attemptRepository.streamAll(null)).willReturn(Stream.of(first, second));
+
+        // When
+        List<Attempt> consumed = new ArrayList<>();
+        attemptService.forEachAttempt(null, consumed::add);
+
+        // Then
+        assertEquals(List.of(first, second), consumed);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
     @Test
     void testDeleteAttempt_ShouldCallRepository() {
+        // Given
+        Attempt stored = new Attempt(1L, "174365829", true);
+        given(attemptRepository.findById(1L)).willReturn(Optional.of(stored));
+
         // When
         attemptService.deleteAttempt(1L);
 
         // Then
-        verify(attemptRepository).deleteById(1L);
+        verify(attemptRepository).delete(stored);
+        verify(attemptStatistics).deleted(true);
+    }
+
+    @Test
+    void testDeleteAttempt_NonExisting_ShouldNotCountADeletion() {
+        given(attemptRepository.findById(999L)).willReturn(Optional.empty());
+
+        attemptService.deleteAttempt(999L);
+
+        verify(attemptRepository, never()).delete(any(Attempt.class));
+        verify(attemptStatistics, never()).deleted(anyBoolean());
     }
 
     @Test
@@ -211,6 +462,7 @@ class AttemptServiceTest {
         attemptService.deleteAllAttempts();
 
         // Then
-        verify(attemptRepository).deleteAll();
+        verify(attemptRepository).deleteAllInBatch();
+        verify(attemptStatistics).reconcile();
     }
 }
@@ -0,0 +1,81 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import com.example.vietnamesepuzzle.service.AttemptStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttemptStatisticsTest {
+
+    @Mock
+    private AttemptRepository attemptRepository;
+
+    @InjectMocks
+    private AttemptStatistics attemptStatistics;
+
+    @Test
+    void testReconcile_ShouldTakeTheCountsFromTheDatabase() {
+        given(attemptRepository.countByCorrect(true)).willReturn(3L);
+        given(attemptRepository.countByCorrect(false)).willReturn(40L);
+        attemptStatistics.created(true);
+
+        attemptStatistics.reconcile();
+
+        Map<String, Object> statistics = attemptStatistics.getStatistics();
+        assertEquals(43L, statistics.get("total"));
+        assertEquals(3L, statistics.get("correct"));
+        assertEquals(40L, statistics.get("incorrect"));
+        // Creations since startup are not reset
+        assertEquals(1L, statistics.get("createdSinceStartup"));
+        assertNotNull(statistics.get("reconciledAt"));
+    }
+
+    @Test
+    void testChanges_ShouldBeCountedWithoutQueries() {
+        attemptStatistics.created(2, 5);
+        attemptStatistics.created(false);
+        attemptStatistics.updated(false, true);
+        attemptStatistics.updated(true, true);
+        attemptStatistics.deleted(false);
+
+        Map<String, Object> statistics = attemptStatistics.getStatistics();
+        assertEquals(7L, statistics.get("total"));
+        assertEquals(3L, statistics.get("correct"));
+        assertEquals(4L, statistics.get("incorrect"));
+        assertEquals(8L, statistics.get("createdSinceStartup"));
+        assertEquals(8.0 / AttemptStatistics.RATE_WINDOW_SECONDS, (Double) statistics.get("createdPerSecond"), 1e-9);
+        verifyNoInteractions(attemptRepository);
+    }
+
+    @Test
+    void testConcurrentCreations_ShouldAllBeCounted() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    attemptStatistics.created(i % 10 == 0);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Object> statistics = attemptStatistics.getStatistics();
+        assertEquals(80_000L, statistics.get("total"));
+        assertEquals(8_000L, statistics.get("correct"));
+    }
+}
@@ -36,5 +36,11 @@ class AttemptUtilsTest {
         assertEquals("123456789", result);
     }
 
+    @Test
+    void testConvertArrayToString() {
+        String result = attemptUtils.convertArrayToString(new int[]{9, 8, 7, 6, 5, 4, 3, 2, 1});
+        assertEquals("987654321", result);
+    }
+
     // Add more edge case tests if needed (e.g., empty list -> "").
 }
@@ -1,6 +1,8 @@
 package com.example.vietnamesepuzzle;
 
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
 import com.example.vietnamesepuzzle.service.AttemptValidation;
+import com.example.vietnamesepuzzle.service.PermutationRank;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -23,8 +25,8 @@ class AttemptValidationTest {
 
     @Test
     void testValidateAttemptInput_Empty_ShouldThrowException() {
-        IllegalArgumentException ex = assertThrows(
-                IllegalArgumentException.class,
+        InvalidRequestException ex = assertThrows(
+                InvalidRequestException.class,
                 () -> attemptValidation.validateAttemptInput("   ")
         );
         assertEquals("The attempt input must not be empty.", ex.getMessage());
@@ -32,8 +34,8 @@ class AttemptValidationTest {
 
     @Test
     void testValidateAttemptInput_LengthNot9_ShouldThrowException() {
-        IllegalArgumentException ex = assertThrows(
-                IllegalArgumentException.class,
+        InvalidRequestException ex = assertThrows(
+                InvalidRequestException.class,
                 () -> attemptValidation.validateAttemptInput("12345678") // only 8 chars
         );
         assertEquals("The attempt input must have exactly 9 characters.", ex.getMessage());
@@ -42,8 +44,8 @@ class AttemptValidationTest {
     @Test
     void testValidateAttemptInput_OutOfRangeDigit_ShouldThrowException() {
         // Contains '0' or some invalid char
-        IllegalArgumentException ex = assertThrows(
-                IllegalArgumentException.class,
+        InvalidRequestException ex = assertThrows(
+                InvalidRequestException.class,
                 () -> attemptValidation.validateAttemptInput("123456780")
         );
         assertTrue(ex.getMessage().contains("All characters must be digits between 1 and 9"));
@@ -51,10 +53,34 @@ class AttemptValidationTest {
 
     @Test
     void testValidateAttemptInput_DuplicateDigit_ShouldThrowException() {
-        IllegalArgumentException ex = assertThrows(
-                IllegalArgumentException.class,
+        InvalidRequestException ex = assertThrows(
+                InvalidRequestException.class,
                 () -> attemptValidation.validateAttemptInput("112345678")
         );
         assertTrue(ex.getMessage().contains("Duplicate digit detected"));
     }
+
+    @Test
+    void testDecodeAttemptInput_ShouldReturnRankAndDigits() {
+        int[] digits = new int[9];
+
+        assertEquals(0, attemptValidation.decodeAttemptInput("123456789", null));
+        assertEquals(PermutationRank.rank("174365829"), attemptValidation.decodeAttemptInput("174365829", digits));
+        assertArrayEquals(new int[]{1, 7, 4, 3, 6, 5, 8, 2, 9}, digits);
+    }
+
+    @Test
+    void testDecodeAttemptInput_ShouldReportTheFirstProblemInOrder() {
+        // Blank beats length, length beats characters, and the first bad character is reported
+        assertEquals("The attempt input must not be empty.", decodeError(null));
+        assertEquals("The attempt input must not be empty.", decodeError("         "));
+        assertEquals("The attempt input must have exactly 9 characters.", decodeError("1234567890"));
+        assertEquals("All characters must be digits between 1 and 9. Invalid char: a", decodeError("1a3456781"));
+        assertEquals("Duplicate digit detected in attempt input: 3", decodeError("1233x6789"));
+    }
+
+    private String decodeError(String attemptInput) {
+        return assertThrows(InvalidRequestException.class,
+                () -> attemptValidation.decodeAttemptInput(attemptInput, null)).getMessage();
+    }
 }
@@ -0,0 +1,99 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.service.CoalescingSolveService;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import com.example.vietnamesepuzzle.service.SolveProgress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.*;
+
+class CoalescingSolveServiceTest {
+
+    private final PuzzleSolveService puzzleSolveService = mock(PuzzleSolveService.class);
+
+    @Test
+    void testConcurrentCallers_ShouldShareOneSolve() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(puzzleSolveService.generateSolutions(eq(SolveMode.OPTIMIZED), any(SolveProgress.class)))
+                .willAnswer(inv -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Map.of("firstSolution", "521784936");
+                });
+        CoalescingSolveService service = new CoalescingSolveService(puzzleSolveService, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Object>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> service.generateSolutions(SolveMode.OPTIMIZED)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> service.generateSolutions(SolveMode.OPTIMIZED)));
+            }
+            // Let the late callers attach to the running solve
+            Thread.sleep(200);
+            release.countDown();
+
+            Map<String, Object> first = results.get(0).get(5, TimeUnit.SECONDS);
+            assertEquals("521784936", first.get("firstSolution"));
+            for (Future<Map<String, Object>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(puzzleSolveService, times(1)).generateSolutions(eq(SolveMode.OPTIMIZED), any(SolveProgress.class));
+    }
+
+    @Test
+    void testWithoutResultTtl_ShouldSolveAgainOnceTheSolveEnded() {
+        given(puzzleSolveService.generateSolutions(any(SolveMode.class), any(SolveProgress.class)))
+                .willReturn(Map.of("firstSolution", "521784936"));
+        CoalescingSolveService service = new CoalescingSolveService(puzzleSolveService, 0);
+
+        service.generateSolutions(SolveMode.OPTIMIZED);
+        service.generateSolutions(SolveMode.OPTIMIZED);
+
+        verify(puzzleSolveService, times(2)).generateSolutions(eq(SolveMode.OPTIMIZED), any(SolveProgress.class));
+    }
+
+    @Test
+    void testWithResultTtl_ShouldReuseTheResultOfTheSameMode() {
+        given(puzzleSolveService.generateSolutions(any(SolveMode.class), any(SolveProgress.class)))
+                .willReturn(Map.of("firstSolution", "521784936"));
+        CoalescingSolveService service = new CoalescingSolveService(puzzleSolveService, 60_000);
+
+        Map<String, Object> first = service.generateSolutions(SolveMode.OPTIMIZED);
+        assertSame(first, service.generateSolutions(SolveMode.OPTIMIZED));
+        service.generateSolutions(SolveMode.NAIVE);
+
+        verify(puzzleSolveService, times(1)).generateSolutions(eq(SolveMode.OPTIMIZED), any(SolveProgress.class));
+        verify(puzzleSolveService, times(1)).generateSolutions(eq(SolveMode.NAIVE), any(SolveProgress.class));
+        assertThrows(UnsupportedOperationException.class, () -> first.put("firstSolution", null));
+    }
+
+    @Test
+    void testFailedSolve_ShouldNotBeCached() {
+        given(puzzleSolveService.generateSolutions(any(SolveMode.class), any(SolveProgress.class)))
+                .willThrow(new IllegalStateException("database down"))
+                .willReturn(Map.of("firstSolution", "521784936"));
+        CoalescingSolveService service = new CoalescingSolveService(puzzleSolveService, 60_000);
+
+        assertThrows(IllegalStateException.class, () -> service.generateSolutions(SolveMode.OPTIMIZED));
+        assertEquals("521784936", service.generateSolutions(SolveMode.OPTIMIZED).get("firstSolution"));
+    }
+}
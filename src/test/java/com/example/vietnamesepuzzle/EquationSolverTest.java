@@ -0,0 +1,144 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.BranchAndBoundSolver;
+import com.example.vietnamesepuzzle.equation.EquationEvaluator;
+import com.example.vietnamesepuzzle.equation.EquationSolver;
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.PermutationCursor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationSolverTest {
+
+    private static final int[] DIGITS = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    @Test
+    void testForEachSolution_VietnamesePuzzle_ShouldFindAll84Solutions() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+
+        assertEquals(bruteForce(equation, DIGITS), solve(equation, DIGITS));
+        assertEquals(84, solve(equation, DIGITS).size());
+    }
+
+    @Test
+    void testForEachSolution_PuzzleVariants_ShouldMatchBruteForce() {
+        String[] variants = {
+                "A + 7 * B / C + D * E - F / G + H - I == 20",
+                "A * B / C + D - E + F * G / H - I == 10",
+                "A / (B + C) + D + E + F + G + H - I == 25", // no polynomial form
+                "A + B + C + D + E + F + G + H + I == 45"
+        };
+        for (String variant : variants) {
+            PuzzleEquation equation = PuzzleEquation.compile(variant);
+            assertEquals(bruteForce(equation, DIGITS), solve(equation, DIGITS), variant);
+        }
+    }
+
+    @Test
+    void testSearchOrder_ShouldPutIntegralityVariablesFirstAndLinearOnesLast() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        int[] order = new EquationSolver(equation, DIGITS).getSearchOrder();
+
+        StringBuilder names = new StringBuilder();
+        for (int variable : order) {
+            names.append(equation.getVariable(variable));
+        }
+        assertEquals("BCGHIADEF", names.toString());
+    }
+
+    @Test
+    void testForEachSolution_WithPrefix_ShouldOnlyVisitMatchingSolutions() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        List<int[]> solutions = new ArrayList<>();
+        // B = 7 and C = 4, as in the known solution 174365829
+        new EquationSolver(equation, DIGITS).forEachSolution(new int[]{7, 4}, 2, values -> {
+            solutions.add(values.clone());
+            return true;
+        });
+
+        assertFalse(solutions.isEmpty());
+        for (int[] solution : solutions) {
+            assertEquals(7, solution[equation.indexOf('B')]);
+            assertEquals(4, solution[equation.indexOf('C')]);
+        }
+        assertTrue(solutions.stream().anyMatch(s -> Arrays.equals(s, new int[]{1, 7, 4, 3, 6, 5, 8, 2, 9})));
+    }
+
+    @Test
+    void testForEachCandidate_ShouldStopWhenVisitorReturnsFalse() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        int[] visited = {0};
+        boolean[] lastCorrect = {false};
+        new EquationSolver(equation, DIGITS).forEachCandidate((values, correct) -> {
+            visited[0]++;
+            lastCorrect[0] = correct;
+            return !correct;
+        });
+
+        assertTrue(visited[0] > 0);
+        assertTrue(lastCorrect[0], "The search should stop on the first solution");
+    }
+
+    @Test
+    void testBranchAndBound_ShouldFindTheSameSolutionsWithFewerNodes() {
+        String[] equations = {
+                PuzzleEquation.VIETNAMESE_PUZZLE,
+                "A + 7 * B / C + D * E - F / G + H - I == 20",
+                "A * B / C + D - E + F * G / H - I == 10",
+                "A + B + C + D + E + F + G + H + I == 45"
+        };
+        for (String source : equations) {
+            PuzzleEquation equation = PuzzleEquation.compile(source);
+            EquationSolver backtracking = new EquationSolver(equation, DIGITS);
+            backtracking.forEachSolution(values -> true);
+            BranchAndBoundSolver branchAndBound = new BranchAndBoundSolver(equation, DIGITS);
+            List<String> solutions = new ArrayList<>();
+            branchAndBound.forEachSolution(values -> {
+                solutions.add(Arrays.toString(values));
+                return true;
+            });
+            solutions.sort(null);
+
+            assertEquals(solve(equation, DIGITS), solutions, source);
+            assertTrue(branchAndBound.getNodesVisited() <= backtracking.getNodesVisited(), source);
+        }
+    }
+
+    @Test
+    void testBranchAndBound_WithoutPolynomialForm_ShouldThrow() {
+        PuzzleEquation equation = PuzzleEquation.compile("A / (B + C) + D + E + F + G + H - I == 25");
+
+        assertThrows(IllegalArgumentException.class, () -> new BranchAndBoundSolver(equation, DIGITS));
+    }
+
+    private static List<String> solve(PuzzleEquation equation, int[] domain) {
+        List<String> solutions = new ArrayList<>();
+        new EquationSolver(equation, domain).forEachSolution(values -> {
+            solutions.add(Arrays.toString(values));
+            return true;
+        });
+        solutions.sort(null);
+        return solutions;
+    }
+
+    private static List<String> bruteForce(PuzzleEquation equation, int[] domain) {
+        EquationEvaluator evaluator = equation.newEvaluator();
+        int n = equation.getVariableCount();
+        PermutationCursor cursor = new PermutationCursor(domain.length).reset(domain, domain.length, n);
+        List<String> solutions = new ArrayList<>();
+        int[] values = new int[n];
+        while (cursor.next()) {
+            System.arraycopy(cursor.values(), 0, values, 0, n);
+            if (evaluator.isSatisfiedBy(values)) {
+                solutions.add(Arrays.toString(values));
+            }
+        }
+        solutions.sort(null);
+        return solutions;
+    }
+}
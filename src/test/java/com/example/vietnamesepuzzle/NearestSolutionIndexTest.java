@@ -0,0 +1,136 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.NearestSolutionIndex;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class NearestSolutionIndexTest {
+
+    private List<String> allSolutions;
+    private NearestSolutionIndex nearestSolutionIndex;
+
+    @BeforeEach
+    void setUp() {
+        ParallelSolveService parallelSolveService = new ParallelSolveService(
+                new AttemptUtils(), PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE), 1, 0);
+        allSolutions = parallelSolveService.findAllSolutions();
+        parallelSolveService.shutdown();
+
+        VerdictIndex verdictIndex = mock(VerdictIndex.class);
+        given(verdictIndex.getSolutions()).willReturn(allSolutions);
+        nearestSolutionIndex = new NearestSolutionIndex(verdictIndex);
+        nearestSolutionIndex.build();
+    }
+
+    @Test
+    void testNearest_ShouldMatchAScanOfAllSolutions() {
+        Random random = new Random(42);
+        int[] digits = new int[9];
+        for (int n = 0; n < 5000; n++) {
+            PermutationRank.unrank(random.nextInt(PermutationRank.PERMUTATION_COUNT), digits);
+
+            Map<String, Object> nearest = nearestSolutionIndex.nearest(digits);
+
+            String expected = allSolutions.stream()
+                    .min(Comparator.<String>comparingInt(s -> swapsByScan(digits, s))
+                            .thenComparingInt(PermutationRank::rank))
+                    .orElseThrow();
+            assertEquals(expected, nearest.get("solution"));
+            assertEquals(swapsByScan(digits, expected), nearest.get("swapDistance"));
+        }
+    }
+
+    @Test
+    void testNearest_SwapsShouldTurnTheAttemptIntoTheSolution() {
+        // Two swaps away from 521784936: A<->B, then C<->I
+        int[] digits = {2, 5, 6, 7, 8, 4, 9, 3, 1};
+
+        Map<String, Object> nearest = nearestSolutionIndex.nearest(digits);
+
+        String solution = (String) nearest.get("solution");
+        assertEquals(2, nearest.get("swapDistance"));
+        assertEquals(List.of("A", "B", "C", "I"), nearest.get("positions"));
+        @SuppressWarnings("unchecked")
+        List<List<String>> swaps = (List<List<String>>) nearest.get("swaps");
+        assertEquals(2, swaps.size());
+        int[] current = digits.clone();
+        for (List<String> swap : swaps) {
+            int i = swap.get(0).charAt(0) - 'A';
+            int j = swap.get(1).charAt(0) - 'A';
+            int digit = current[i];
+            current[i] = current[j];
+            current[j] = digit;
+        }
+        assertEquals(solution, toInput(current));
+        assertEquals(kendallTauByBubbleSort(digits, solution), nearest.get("kendallTauDistance"));
+    }
+
+    @Test
+    void testNearest_Solution_ShouldBeItself() {
+        Map<String, Object> nearest = nearestSolutionIndex.nearest(new int[]{5, 2, 1, 7, 8, 4, 9, 3, 6});
+
+        assertEquals("521784936", nearest.get("solution"));
+        assertEquals(0, nearest.get("swapDistance"));
+        assertEquals(0, nearest.get("kendallTauDistance"));
+        assertEquals(List.of(), nearest.get("swaps"));
+    }
+
+    // Fewest swaps by repeatedly fixing the first wrong position.
+    private static int swapsByScan(int[] digits, String solution) {
+        char[] current = toInput(digits).toCharArray();
+        int swaps = 0;
+        for (int i = 0; i < 9; i++) {
+            if (current[i] != solution.charAt(i)) {
+                int j = solution.indexOf(current[i]);
+                // Follow the cycle: move the digit at i to where the solution wants it
+                char digit = current[j];
+                current[j] = current[i];
+                current[i] = digit;
+                swaps++;
+                i--;
+            }
+        }
+        return swaps;
+    }
+
+    // Adjacent swaps a bubble sort needs to reorder the attempt into the solution.
+    private static int kendallTauByBubbleSort(int[] digits, String solution) {
+        int[] order = new int[9];
+        for (int i = 0; i < 9; i++) {
+            order[i] = solution.indexOf((char) ('0' + digits[i]));
+        }
+        int swaps = 0;
+        for (int pass = 0; pass < 9; pass++) {
+            for (int i = 0; i + 1 < 9; i++) {
+                if (order[i] > order[i + 1]) {
+                    int tmp = order[i];
+                    order[i] = order[i + 1];
+                    order[i + 1] = tmp;
+                    swaps++;
+                }
+            }
+        }
+        return swaps;
+    }
+
+    private static String toInput(int[] digits) {
+        StringBuilder input = new StringBuilder(9);
+        for (int digit : digits) {
+            input.append(digit);
+        }
+        return input.toString();
+    }
+}
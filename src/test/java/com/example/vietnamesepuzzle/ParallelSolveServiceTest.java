@@ -0,0 +1,74 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSolveServiceTest {
+
+    private AttemptUtils attemptUtils;
+    private PuzzleEquation equation;
+    private ParallelSolveService parallelSolveService;
+
+    @BeforeEach
+    void setUp() {
+        attemptUtils = new AttemptUtils();
+        equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        parallelSolveService = new ParallelSolveService(attemptUtils, equation, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelSolveService.shutdown();
+    }
+
+    @Test
+    void testFindAllSolutions_ShouldReturnOnlyValidDistinctSolutions() {
+        PuzzleSolveService puzzleSolveService = new PuzzleSolveService(null, attemptUtils, null, equation, null, null);
+
+        List<String> solutions = parallelSolveService.findAllSolutions();
+
+        // The equation has 84 exact solutions over the permutations of 1..9
+        assertEquals(84, solutions.size());
+        assertEquals(84, new HashSet<>(solutions).size());
+        for (String solution : solutions) {
+            assertTrue(puzzleSolveService.evaluateExpression(attemptUtils.convertStringToIntegerList(solution)),
+                    "Not a solution: " + solution);
+        }
+    }
+
+    @Test
+    void testGenerateAllSolutions_ShouldBeDeterministicAcrossParallelismLevels() {
+        Map<String, Object> single = parallelSolveService.generateAllSolutions(1);
+        Map<String, Object> quad = parallelSolveService.generateAllSolutions(4);
+
+        assertEquals(single.get("solutions"), quad.get("solutions"));
+        assertEquals(84, single.get("count"));
+        assertEquals(1, single.get("parallelism"));
+        assertEquals(4, quad.get("parallelism"));
+        assertTrue(quad.containsKey("durationMs"));
+    }
+
+    @Test
+    void testGenerateAllSolutions_NegativeParallelism_ShouldThrowException() {
+        assertThrows(InvalidRequestException.class, () -> parallelSolveService.generateAllSolutions(-1));
+    }
+
+    @Test
+    void testGenerateAllSolutions_ParallelismAboveMaximum_ShouldThrowException() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> parallelSolveService.generateAllSolutions(100000));
+        assertEquals("The parallelism level must be between 0 and 4.", ex.getMessage());
+    }
+}
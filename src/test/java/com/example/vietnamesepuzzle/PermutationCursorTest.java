@@ -0,0 +1,68 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.service.PermutationCursor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermutationCursorTest {
+
+    @Test
+    void testNext_ShouldVisitKPermutationsInLexicographicOrder() {
+        PermutationCursor cursor = new PermutationCursor(3).reset(new int[]{1, 2, 3}, 3, 2);
+
+        List<String> visited = new ArrayList<>();
+        while (cursor.next()) {
+            visited.add("" + cursor.get(0) + cursor.get(1));
+        }
+
+        assertEquals(List.of("12", "13", "21", "23", "31", "32"), visited);
+    }
+
+    @Test
+    void testNext_AllNinePermutations_ShouldBeDistinctAndComplete() {
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        PermutationCursor cursor = new PermutationCursor(9).reset(digits, 9, 9);
+
+        Set<String> visited = new HashSet<>();
+        while (cursor.next()) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < cursor.size(); i++) {
+                sb.append(cursor.get(i));
+            }
+            visited.add(sb.toString());
+        }
+
+        assertEquals(362880, visited.size());
+        assertFalse(cursor.next(), "An exhausted cursor should stay exhausted");
+    }
+
+    @Test
+    void testUnused_ShouldReturnDigitsNotPicked() {
+        PermutationCursor cursor = new PermutationCursor(5).reset(new int[]{1, 2, 3, 4, 5}, 5, 2);
+        assertTrue(cursor.next());
+        assertTrue(cursor.next()); // [1, 3]
+
+        int[] rest = new int[3];
+        assertEquals(3, cursor.unused(rest));
+        assertArrayEquals(new int[]{2, 4, 5}, rest);
+    }
+
+    @Test
+    void testReset_ShouldRestartFromFirstPermutation() {
+        PermutationCursor cursor = new PermutationCursor(3).reset(new int[]{1, 2, 3}, 3, 3);
+        while (cursor.next()) {
+            // exhaust
+        }
+
+        cursor.reset(new int[]{7, 8}, 2, 2);
+        assertTrue(cursor.next());
+        assertEquals(7, cursor.get(0));
+        assertEquals(8, cursor.get(1));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.service.PermutationCursor;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermutationRankTest {
+
+    @Test
+    void testRank_FirstAndLastPermutations() {
+        assertEquals(0, PermutationRank.rank("123456789"));
+        assertEquals(1, PermutationRank.rank("123456798"));
+        assertEquals(PermutationRank.PERMUTATION_COUNT - 1, PermutationRank.rank("987654321"));
+    }
+
+    @Test
+    void testRank_InvalidInput_ShouldReturnMinusOne() {
+        assertEquals(-1, PermutationRank.rank((String) null));
+        assertEquals(-1, PermutationRank.rank("12345678"));
+        assertEquals(-1, PermutationRank.rank("123456780"));
+        assertEquals(-1, PermutationRank.rank("112345678"));
+        assertEquals(-1, PermutationRank.rank("12345678a"));
+    }
+
+    @Test
+    void testRankAndUnrank_ShouldFollowLexicographicOrder() {
+        PermutationCursor cursor = new PermutationCursor(9).reset(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, 9, 9);
+        int[] unranked = new int[9];
+        int expected = 0;
+        while (cursor.next()) {
+            assertEquals(expected, PermutationRank.rank(cursor.values()));
+            PermutationRank.unrank(expected, unranked);
+            assertArrayEquals(cursor.values(), unranked);
+            expected++;
+        }
+        assertEquals(PermutationRank.PERMUTATION_COUNT, expected);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.EquationEvaluator;
+import com.example.vietnamesepuzzle.equation.PolynomialForm;
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.PermutationCursor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleEquationTest {
+
+    @Test
+    void testCompile_ShouldIndexVariablesAlphabetically() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+
+        assertEquals(9, equation.getVariableCount());
+        assertEquals('A', equation.getVariable(0));
+        assertEquals('I', equation.getVariable(8));
+        assertEquals(6, equation.indexOf('G'));
+        assertEquals(-1, equation.indexOf('Z'));
+    }
+
+    @Test
+    void testEvaluator_ShouldUseExactRationalArithmetic() {
+        EquationEvaluator evaluator = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE).newEvaluator();
+
+        assertTrue(evaluator.isSatisfiedBy(new int[]{1, 7, 4, 3, 6, 5, 8, 2, 9}));
+        assertFalse(evaluator.isSatisfiedBy(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        // 1/3 + 1/3 + 1/3 is exactly 1
+        assertTrue(PuzzleEquation.compile("A / B + A / B + A / B == 1").newEvaluator().isSatisfiedBy(new int[]{1, 3}));
+    }
+
+    @Test
+    void testEvaluator_DivisionByZero_ShouldNotBeSatisfied() {
+        EquationEvaluator evaluator = PuzzleEquation.compile("A / (B - C) == 0").newEvaluator();
+
+        assertFalse(evaluator.isSatisfiedBy(new int[]{0, 2, 2}));
+        assertTrue(evaluator.isSatisfiedBy(new int[]{0, 3, 2}));
+    }
+
+    @Test
+    void testEvaluator_ShouldHandleUnaryMinusAndPrecedence() {
+        EquationEvaluator evaluator = PuzzleEquation.compile("-A + B * (C - 1) == 2 * 3").newEvaluator();
+
+        // -2 + 4 * (3 - 1) == 6
+        assertTrue(evaluator.isSatisfiedBy(new int[]{2, 4, 3}));
+    }
+
+    @Test
+    void testScaledEvaluator_ShouldAgreeWithProgramEvaluatorOnAllPermutations() {
+        String[] equations = {
+                PuzzleEquation.VIETNAMESE_PUZZLE,
+                "A / 2 + B / 3 + C * D / (E * F) - G / H / H + I == 10",
+                "A * B * C / 7 - D / (2 * E) + F * G * H * I / 9 == 35"
+        };
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (String source : equations) {
+            PuzzleEquation equation = PuzzleEquation.compile(source);
+            EquationEvaluator scaled = equation.newEvaluator();
+            EquationEvaluator program = equation.newProgramEvaluator();
+            PermutationCursor cursor = new PermutationCursor(9).reset(digits, 9, 9);
+            int solutions = 0;
+            while (cursor.next()) {
+                boolean expected = program.isSatisfiedBy(cursor.values());
+                assertEquals(expected, scaled.isSatisfiedBy(cursor.values()), source);
+                solutions += expected ? 1 : 0;
+            }
+            if (source.equals(PuzzleEquation.VIETNAMESE_PUZZLE)) {
+                assertEquals(84, solutions);
+            }
+        }
+    }
+
+    @Test
+    void testScaledEvaluator_ZeroDenominator_ShouldNotBeSatisfied() {
+        // Scaled by B, 0 * (A / B - 1) == 0 would wrongly hold
+        EquationEvaluator evaluator = PuzzleEquation.compile("A / B == 1").newEvaluator();
+
+        assertFalse(evaluator.isSatisfiedBy(new int[]{0, 0}));
+        assertTrue(evaluator.isSatisfiedBy(new int[]{3, 3}));
+    }
+
+    @Test
+    void testPolynomialForm_ShouldDeriveLinearAndIntegralityFacts() {
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        PolynomialForm polynomial = equation.getPolynomial().orElseThrow();
+
+        // Only B/C and H*I/G are fractional
+        boolean[] integrality = polynomial.integralityVariables();
+        String expected = "BCGHI";
+        for (int v = 0; v < 9; v++) {
+            assertEquals(expected.indexOf(equation.getVariable(v)) >= 0, integrality[v], "variable " + v);
+        }
+        assertTrue(polynomial.isLinear(equation.indexOf('A')));
+        assertTrue(polynomial.isLinear(equation.indexOf('F')));
+        // G appears as -G and in H*I/G
+        assertFalse(polynomial.isLinear(equation.indexOf('G')));
+        assertFalse(polynomial.isLinear(equation.indexOf('H')));
+    }
+
+    @Test
+    void testPolynomialForm_DivisionBySum_ShouldBeAbsent() {
+        assertTrue(PuzzleEquation.compile("A / (B + C) == 1").getPolynomial().isEmpty());
+    }
+
+    @Test
+    void testCompile_InvalidSyntax_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEquation.compile("A + == 3"));
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEquation.compile("A + B"));
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEquation.compile("(A + B == 3"));
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEquation.compile("AB == 3"));
+        assertThrows(IllegalArgumentException.class, () -> PuzzleEquation.compile(""));
+    }
+}
@@ -1,19 +1,31 @@
 package com.example.vietnamesepuzzle;
 
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.repository.AttemptBatchWriter;
 import com.example.vietnamesepuzzle.repository.AttemptRepository;
+import com.example.vietnamesepuzzle.service.AttemptStatistics;
 import com.example.vietnamesepuzzle.service.AttemptUtils;
 import com.example.vietnamesepuzzle.service.AttemptValidation;
+import com.example.vietnamesepuzzle.service.PuzzleMetrics;
 import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import com.example.vietnamesepuzzle.service.SolveProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
@@ -30,12 +42,27 @@ class PuzzleSolveServiceTest {
     @Mock
     private AttemptUtils attemptUtils;
 
+    @Mock
+    private AttemptBatchWriter attemptBatchWriter;
+
+    // The real compiled equation, so evaluation and search are exercised for real
+    @Spy
+    private PuzzleEquation puzzleEquation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PuzzleMetrics puzzleMetrics = new PuzzleMetrics(meterRegistry, true);
+
+    @Mock
+    private AttemptStatistics attemptStatistics;
+
     @InjectMocks
     private PuzzleSolveService puzzleSolveService;
 
     @BeforeEach
     void setUp() {
-        Mockito.reset(attemptRepository, attemptValidation);
+        Mockito.reset(attemptRepository, attemptValidation, attemptBatchWriter);
     }
 
     @Test
@@ -52,6 +79,13 @@ class PuzzleSolveServiceTest {
         assertFalse(result, "Adjust this assertion based on actual puzzle correctness");
     }
 
+    @Test
+    void testEvaluateExpression_KnownSolution_ShouldReturnTrue() {
+        // 1 + 13*7/4 + 3 + 6 + 12*5 - 8 - 11 + 2*9/8 - 10 == 66
+        assertTrue(puzzleSolveService.evaluateExpression(List.of(1, 7, 4, 3, 6, 5, 8, 2, 9)));
+        assertTrue(puzzleSolveService.evaluateExpression(new int[]{1, 7, 4, 3, 6, 5, 8, 2, 9}));
+    }
+
     @Test
     void testEvaluateExpression_IncompleteList_ShouldReturnFalse() {
         List<Integer> digits = List.of(1, 2, 3, 4, 5, 6, 7, 8); // only 8 digits
@@ -61,14 +95,14 @@ class PuzzleSolveServiceTest {
 
     @Test
     void testGenerateSolutions_ShouldReturnMapWithSolutionAndDuration() {
-        // We can mock attemptRepository.deleteAll() call
-        willDoNothing().given(attemptRepository).deleteAll();
+        // We can mock attemptRepository.deleteAllInBatch() call
+        willDoNothing().given(attemptRepository).deleteAllInBatch();
 
         // When
         Map<String, Object> result = puzzleSolveService.generateSolutions();
 
         // Then
-        verify(attemptRepository, times(1)).deleteAll();
+        verify(attemptRepository, times(1)).deleteAllInBatch();
         assertNotNull(result, "Should not be null");
         assertTrue(result.containsKey("firstSolution"), "Map should contain 'solution'");
         assertTrue(result.containsKey("durationMs"), "Map should contain 'durationMs'");
@@ -76,6 +110,126 @@ class PuzzleSolveServiceTest {
         // or a String with the solution. 'durationMs' should be a Long
     }
 
+    @Test
+    void testGenerateSolutions_ShouldInsertInBatchesWithoutPerRowLookups() {
+        given(attemptBatchWriter.getBatchSize()).willReturn(100);
+        given(attemptUtils.convertArrayToString(any(int[].class))).willReturn("174365829");
+
+        // When
+        Map<String, Object> result = puzzleSolveService.generateSolutions();
+
+        // Then
+        int stored = (Integer) result.get("attemptsStored");
+        assertTrue(stored > 0);
+        verify(attemptRepository, never()).findByAttemptInput(anyString());
+        verify(attemptRepository, never()).save(any());
+        // Full batches of 100 plus one final partial batch
+        verify(attemptBatchWriter, times((stored + 99) / 100)).insertAll(anyList());
+    }
+
+    @Test
+    void testGenerateSolutions_ShouldReportProgress() {
+        given(attemptBatchWriter.getBatchSize()).willReturn(100);
+        SolveProgress progress = new SolveProgress();
+
+        Map<String, Object> result = puzzleSolveService.generateSolutions(SolveMode.OPTIMIZED, progress);
+
+        assertEquals(((Integer) result.get("attemptsStored")).longValue(), progress.getExplored());
+        assertEquals(progress.getExplored(), progress.getPersisted());
+        // The counts are taken from the cleared table, then every stored batch is added
+        InOrder inOrder = inOrder(attemptRepository, attemptStatistics);
+        inOrder.verify(attemptRepository).deleteAllInBatch();
+        inOrder.verify(attemptStatistics).reconcile();
+        // The optimized search stores 2026 attempts, the last one its first (correct) solution
+        verify(attemptStatistics, times(20)).created(0L, 100L);
+        verify(attemptStatistics).created(1L, 25L);
+    }
+
+    @Test
+    void testGenerateSolutions_BranchAndBound_ShouldStoreOnlyTheFirstSolution() {
+        given(attemptBatchWriter.getBatchSize()).willReturn(100);
+        given(attemptUtils.convertArrayToString(any(int[].class))).willReturn("174365829");
+
+        Map<String, Object> result = puzzleSolveService.generateSolutions(SolveMode.BRANCH_AND_BOUND, new SolveProgress());
+
+        assertEquals("174365829", result.get("firstSolution"));
+        assertEquals(1, result.get("attemptsStored"));
+        assertTrue((Long) result.get("nodesVisited") > 0);
+        assertTrue((Long) result.get("nodesPruned") > 0);
+        verify(attemptBatchWriter, times(1)).insertAll(anyList());
+    }
+
+    @Test
+    void testGenerateSolutions_ShouldRecordMetrics() {
+        given(attemptBatchWriter.getBatchSize()).willReturn(100);
+        given(attemptUtils.convertArrayToString(any(int[].class))).willReturn("174365829");
+
+        Map<String, Object> result = puzzleSolveService.generateSolutions(SolveMode.OPTIMIZED, new SolveProgress());
+
+        double stored = ((Integer) result.get("attemptsStored")).doubleValue();
+        assertEquals(stored, meterRegistry.get(PuzzleMetrics.SOLVER_CANDIDATES).tag("outcome", "evaluated").counter().count());
+        assertTrue(meterRegistry.get(PuzzleMetrics.SOLVER_CANDIDATES).tag("outcome", "pruned").counter().count() > 0);
+        // The optimized solve stops at its first solution
+        assertEquals(1.0, meterRegistry.get(PuzzleMetrics.ATTEMPTS_STORED)
+                .tags("source", "solver", "correct", "true").counter().count());
+        assertEquals(stored - 1, meterRegistry.get(PuzzleMetrics.ATTEMPTS_STORED)
+                .tags("source", "solver", "correct", "false").counter().count());
+        assertEquals(1, meterRegistry.get(PuzzleMetrics.SOLVER_PHASE).tag("phase", "permutations").timer().count());
+        assertEquals(1, meterRegistry.get(PuzzleMetrics.SOLVER_PHASE).tag("phase", "persistence").timer().count());
+        // Evaluation is fused into the optimized search
+        assertEquals(0, meterRegistry.get(PuzzleMetrics.SOLVER_PHASE).tag("phase", "evaluation").timer().count());
+    }
+
+    @Test
+    void testPuzzleMetrics_Disabled_ShouldRegisterNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PuzzleMetrics disabled = new PuzzleMetrics(registry, false);
+
+        disabled.attemptCreated(true);
+        disabled.candidates(10, 20);
+        disabled.recordPhase(PuzzleMetrics.Phase.EVALUATION, 1000);
+
+        assertFalse(disabled.isEnabled());
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    void testGenerateSolutions_Cancelled_ShouldStop() {
+        SolveProgress progress = new SolveProgress();
+        progress.cancel();
+
+        assertThrows(CancellationException.class,
+                () -> puzzleSolveService.generateSolutions(SolveMode.NAIVE, progress));
+        verify(attemptBatchWriter, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testGenerateSolutions_WhileAnotherSolveRuns_ShouldWaitAndBeCancellable() throws Exception {
+        CountDownLatch clearing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        willAnswer(inv -> {
+            clearing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).given(attemptRepository).deleteAllInBatch();
+        given(attemptBatchWriter.getBatchSize()).willReturn(100);
+
+        Thread first = new Thread(() -> puzzleSolveService.generateSolutions(SolveMode.OPTIMIZED, new SolveProgress()));
+        first.start();
+        assertTrue(clearing.await(5, TimeUnit.SECONDS));
+
+        // The second solve must not clear the table under the first one
+        SolveProgress waiting = new SolveProgress();
+        waiting.cancel();
+        assertThrows(CancellationException.class,
+                () -> puzzleSolveService.generateSolutions(SolveMode.OPTIMIZED, waiting));
+        verify(attemptRepository, times(1)).deleteAllInBatch();
+
+        release.countDown();
+        first.join(5000);
+        assertFalse(first.isAlive());
+    }
+
     @Test
     void testPermutations_ShouldProduceAllKPermutations() {
         List<Integer> input = List.of(1, 2, 3);
@@ -92,21 +246,6 @@ class PuzzleSolveServiceTest {
         assertTrue(perms.contains(List.of(3, 2)));
     }
 
-    @Test
-    void testFractionOperations() {
-        // Test the nested Fraction class
-        PuzzleSolveService.Fraction f1 = new PuzzleSolveService.Fraction(13, 2); // 13/2
-        PuzzleSolveService.Fraction f2 = new PuzzleSolveService.Fraction(3, 2);  // 3/2
-
-        PuzzleSolveService.Fraction sum = f1.add(f2);      // 13/2 + 3/2 = 16/2 = 8
-        assertTrue(sum.isInteger());
-        assertEquals(8, sum.intValue());
-
-        PuzzleSolveService.Fraction diff = f1.subtract(f2); // 13/2 - 3/2 = 10/2 = 5
-        assertTrue(diff.isInteger());
-        assertEquals(5, diff.intValue());
-    }
-
     // You could add more tests for backtracking logic if needed,
     // such as backtrackNaive or backtrackOptimizedStoreAll, but that can quickly become
     // a more complex test scenario (akin to an integration test).
@@ -0,0 +1,191 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.ShardCoordinator;
+import com.example.vietnamesepuzzle.service.ShardSolveService;
+import com.example.vietnamesepuzzle.service.ShardWorker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTest {
+
+    private ShardSolveService shardSolveService;
+    private ShardCoordinator shardCoordinator;
+    private List<String> expectedSolutions;
+
+    @BeforeEach
+    void setUp() {
+        AttemptUtils attemptUtils = new AttemptUtils();
+        PuzzleEquation equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        PuzzleSolveService puzzleSolveService = new PuzzleSolveService(null, attemptUtils, null, equation, null, null);
+        shardSolveService = new ShardSolveService(puzzleSolveService, attemptUtils);
+        // Two in-process workers stand in for two other instances; no retry backoff
+        shardCoordinator = new ShardCoordinator(shardSolveService, puzzleSolveService,
+                List.of("local", "local"), 72, 3, 1000, 0);
+
+        ParallelSolveService parallelSolveService = new ParallelSolveService(attemptUtils, equation, 1, 0);
+        expectedSolutions = parallelSolveService.findAllSolutions().stream()
+                .sorted(Comparator.comparingInt(PermutationRank::rank))
+                .toList();
+        parallelSolveService.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardCoordinator.shutdown();
+    }
+
+    @Test
+    void testSolve_ShouldMergeAllSolutionsInRankOrder() {
+        Map<String, Object> result = shardCoordinator.solve(7);
+
+        assertEquals(expectedSolutions, result.get("solutions"));
+        assertEquals(84, result.get("count"));
+        assertEquals(0, result.get("retries"));
+        assertEquals(List.of("local", "local"), result.get("workers"));
+        assertEquals(Map.of("local", 7), result.get("shardsPerWorker"));
+    }
+
+    @Test
+    void testSolve_FailingWorker_ShouldRetryShardsOnOtherWorkers() {
+        ShardWorker healthy = worker("healthy", new AtomicInteger(), 0);
+        ShardWorker flaky = worker("flaky", new AtomicInteger(), Integer.MAX_VALUE);
+
+        Map<String, Object> result = shardCoordinator.solve(List.of(flaky, healthy), 12);
+
+        assertEquals(expectedSolutions, result.get("solutions"));
+        assertEquals(Map.of("healthy", 12, "flaky", 0), result.get("shardsPerWorker"));
+        assertTrue((Integer) result.get("retries") > 0);
+    }
+
+    @Test
+    void testSolve_ShardFailingOnEveryAttempt_ShouldThrowException() {
+        ShardWorker broken = worker("broken", new AtomicInteger(), Integer.MAX_VALUE);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> shardCoordinator.solve(List.of(broken), 4));
+        assertTrue(ex.getMessage().contains("failed 3 times"));
+    }
+
+    @Test
+    void testSolve_WrongSolutionFromWorker_ShouldBeRejectedAndRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        ShardWorker liar = new ShardWorker() {
+            @Override
+            public String getName() {
+                return "liar";
+            }
+
+            @Override
+            public List<String> solve(int fromRank, int toRank) {
+                if (calls.getAndIncrement() == 0) {
+                    // A permutation in range that does not satisfy the equation
+                    return List.of("123456789");
+                }
+                return shardSolveService.solveRange(fromRank, toRank);
+            }
+        };
+
+        Map<String, Object> result = shardCoordinator.solve(List.of(liar), 3);
+
+        assertEquals(expectedSolutions, result.get("solutions"));
+        assertEquals(1, result.get("retries"));
+    }
+
+    @Test
+    void testSolve_LocalShards_ShouldBeSolvedOffTheDispatchThreads() {
+        PuzzleSolveService puzzleSolveService = new PuzzleSolveService(null, new AttemptUtils(), null,
+                PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE), null, null);
+        Set<String> dispatchThreads = ConcurrentHashMap.newKeySet();
+        Set<String> solvingThreads = ConcurrentHashMap.newKeySet();
+        ShardSolveService recording = new ShardSolveService(puzzleSolveService, new AttemptUtils()) {
+            @Override
+            public List<String> solveRange(int fromRank, int toRank) {
+                solvingThreads.add(Thread.currentThread().getName());
+                return super.solveRange(fromRank, toRank);
+            }
+        };
+        ShardCoordinator coordinator = new ShardCoordinator(recording, puzzleSolveService,
+                List.of("local", "local"), 72, 3, 1000, 0);
+        ShardWorker local = coordinator.localWorker();
+        ShardWorker recordingLocal = new ShardWorker() {
+            @Override
+            public String getName() {
+                return local.getName();
+            }
+
+            @Override
+            public List<String> solve(int fromRank, int toRank) {
+                dispatchThreads.add(Thread.currentThread().getName());
+                return local.solve(fromRank, toRank);
+            }
+        };
+
+        try {
+            assertEquals(expectedSolutions, coordinator.solve(List.of(recordingLocal, recordingLocal), 8).get("solutions"));
+            assertEquals(expectedSolutions, coordinator.solve(List.of(recordingLocal, recordingLocal), 8).get("solutions"));
+        } finally {
+            coordinator.shutdown();
+        }
+
+        assertTrue(dispatchThreads.stream().allMatch(name -> name.startsWith("shard-dispatch-")), dispatchThreads::toString);
+        // Two local entries: two solving threads, whatever the number of solves
+        assertTrue(solvingThreads.stream().allMatch(name -> name.startsWith("shard-local-")), solvingThreads::toString);
+        assertTrue(solvingThreads.size() <= 2, solvingThreads::toString);
+    }
+
+    @Test
+    void testPrefixRange_ShouldCoverThePermutationsWithThatPrefix() {
+        int[] range = ShardSolveService.prefixRange("52");
+
+        assertEquals(PermutationRank.rank("521346789"), range[0]);
+        assertEquals(range[0] + 5040, range[1]);
+        List<String> solutions = shardSolveService.solveRange(range[0], range[1]);
+        assertEquals(expectedSolutions.stream().filter(s -> s.startsWith("52")).toList(), solutions);
+        assertTrue(solutions.contains("521784936"));
+        assertThrows(InvalidRequestException.class, () -> ShardSolveService.prefixRange("55"));
+    }
+
+    @Test
+    void testSolveRange_ShouldVisitEveryPermutationOnce() {
+        List<String> all = shardSolveService.solveRange(0, PermutationRank.PERMUTATION_COUNT);
+
+        assertEquals(expectedSolutions, all);
+        assertEquals(84, new HashSet<>(all).size());
+        assertThrows(InvalidRequestException.class, () -> shardSolveService.solveRange(10, 5));
+    }
+
+    // A worker solving shards in process, failing its first failures calls.
+    private ShardWorker worker(String name, AtomicInteger calls, int failures) {
+        return new ShardWorker() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<String> solve(int fromRank, int toRank) {
+                if (calls.getAndIncrement() < failures) {
+                    throw new IllegalStateException(name + " is down");
+                }
+                return shardSolveService.solveRange(fromRank, toRank);
+            }
+        };
+    }
+}
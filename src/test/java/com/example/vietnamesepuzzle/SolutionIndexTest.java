@@ -0,0 +1,107 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import com.example.vietnamesepuzzle.service.SolutionIndex;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+class SolutionIndexTest {
+
+    private List<String> allSolutions;
+    private SolutionIndex solutionIndex;
+
+    @BeforeEach
+    void setUp() {
+        ParallelSolveService parallelSolveService = new ParallelSolveService(
+                new AttemptUtils(), PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE), 1, 0);
+        allSolutions = parallelSolveService.findAllSolutions().stream()
+                .sorted(Comparator.comparingInt(PermutationRank::rank))
+                .toList();
+        parallelSolveService.shutdown();
+
+        VerdictIndex verdictIndex = mock(VerdictIndex.class);
+        given(verdictIndex.getSolutions()).willReturn(allSolutions);
+        solutionIndex = new SolutionIndex(verdictIndex);
+        solutionIndex.build();
+    }
+
+    @Test
+    void testQuery_NoAssignment_ShouldMatchEverySolution() {
+        Map<String, Object> result = solutionIndex.query(new int[9], 0, 1000);
+
+        assertEquals(84, result.get("remaining"));
+        assertEquals(allSolutions, result.get("completions"));
+        assertNull(result.get("nextOffset"));
+    }
+
+    @Test
+    void testQuery_PartialAssignment_ShouldMatchAFilterOfAllSolutions() {
+        int[] assignment = SolutionIndex.parseAssignment(Map.of("A", "4", "F", "6"));
+        List<String> expected = allSolutions.stream()
+                .filter(s -> s.charAt(0) == '4' && s.charAt(5) == '6')
+                .toList();
+
+        Map<String, Object> result = solutionIndex.query(assignment, 0, 1000);
+
+        assertEquals(expected.size(), result.get("remaining"));
+        assertEquals(expected, result.get("completions"));
+        assertEquals(expected.size(), solutionIndex.countCompletions(assignment));
+        @SuppressWarnings("unchecked")
+        Map<String, List<Integer>> domains = (Map<String, List<Integer>>) result.get("domains");
+        for (int letter = 0; letter < 9; letter++) {
+            TreeSet<Integer> digits = new TreeSet<>();
+            for (String solution : expected) {
+                digits.add(solution.charAt(letter) - '0');
+            }
+            assertEquals(List.copyOf(digits), domains.get(String.valueOf((char) ('A' + letter))));
+        }
+        assertEquals(Map.of("A", 4, "F", 6), result.get("assignment"));
+    }
+
+    @Test
+    void testQuery_ShouldPaginateInRankOrder() {
+        Map<String, Object> first = solutionIndex.query(new int[9], 0, 50);
+        Map<String, Object> second = solutionIndex.query(new int[9], 50, 50);
+
+        assertEquals(allSolutions.subList(0, 50), first.get("completions"));
+        assertEquals(50, first.get("nextOffset"));
+        assertEquals(allSolutions.subList(50, 84), second.get("completions"));
+        assertNull(second.get("nextOffset"));
+        assertEquals(List.of(), solutionIndex.query(new int[9], 100, 10).get("completions"));
+    }
+
+    @Test
+    void testQuery_ImpossibleAssignment_ShouldLeaveNoSolution() {
+        // Two letters cannot share a digit
+        Map<String, Object> result = solutionIndex.query(
+                SolutionIndex.parseAssignment(Map.of("A", "5", "B", "5")), 0, 10);
+
+        assertEquals(0, result.get("remaining"));
+        assertEquals(List.of(), result.get("completions"));
+        @SuppressWarnings("unchecked")
+        Map<String, List<Integer>> domains = (Map<String, List<Integer>>) result.get("domains");
+        assertTrue(domains.values().stream().allMatch(List::isEmpty));
+    }
+
+    @Test
+    void testParseAssignment_InvalidInput_ShouldThrowException() {
+        assertThrows(InvalidRequestException.class, () -> SolutionIndex.parseAssignment(Map.of("J", "1")));
+        assertThrows(InvalidRequestException.class, () -> SolutionIndex.parseAssignment(Map.of("a", "1")));
+        assertThrows(InvalidRequestException.class, () -> SolutionIndex.parseAssignment(Map.of("A", "0")));
+        assertThrows(InvalidRequestException.class, () -> SolutionIndex.parseAssignment(Map.of("A", "12")));
+        assertThrows(InvalidRequestException.class, () -> solutionIndex.query(new int[9], 0, 1001));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import com.example.vietnamesepuzzle.service.SolutionSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path path;
+    private PuzzleEquation equation;
+    private SolutionSnapshot snapshot;
+    private int[] ranks;
+    private BitSet verdicts;
+
+    @BeforeEach
+    void setUp() {
+        path = tempDir.resolve("snapshot.bin");
+        equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        snapshot = new SolutionSnapshot(equation, path.toString());
+        ranks = new int[]{PermutationRank.rank("174365829"), PermutationRank.rank("521784936")};
+        verdicts = new BitSet(PermutationRank.PERMUTATION_COUNT);
+        for (int rank : ranks) {
+            verdicts.set(rank);
+        }
+    }
+
+    @Test
+    void testSaveAndLoad_ShouldRoundTrip() {
+        snapshot.save(ranks, verdicts.toLongArray());
+
+        SolutionSnapshot.Contents contents = snapshot.load().orElseThrow();
+        assertArrayEquals(ranks, contents.solutionRanks());
+        for (int rank = 0; rank < PermutationRank.PERMUTATION_COUNT; rank++) {
+            boolean bit = (contents.verdictWords().get(rank >>> 6) & (1L << rank)) != 0;
+            assertEquals(verdicts.get(rank), bit, "rank " + rank);
+        }
+    }
+
+    @Test
+    void testLoad_MissingOrDisabled_ShouldBeEmpty() {
+        assertTrue(snapshot.load().isEmpty());
+        assertFalse(new SolutionSnapshot(equation, "").isEnabled());
+        assertTrue(new SolutionSnapshot(equation, "").load().isEmpty());
+    }
+
+    @Test
+    void testLoad_CorruptedFile_ShouldBeRejected() throws IOException {
+        snapshot.save(ranks, verdicts.toLongArray());
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertEquals(Optional.empty(), snapshot.load());
+    }
+
+    @Test
+    void testLoad_OtherVersionOrEquation_ShouldBeRejected() throws IOException {
+        snapshot.save(ranks, verdicts.toLongArray());
+        PuzzleEquation other = PuzzleEquation.compile("A + B + C + D + E + F + G + H + I == 45");
+        assertTrue(new SolutionSnapshot(other, path.toString()).load().isEmpty());
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[7] = 99; // version
+        Files.write(path, bytes);
+        assertTrue(snapshot.load().isEmpty());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.exception.InvalidRequestException;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.SolveJob;
+import com.example.vietnamesepuzzle.service.SolveJobEvent;
+import com.example.vietnamesepuzzle.service.SolveJobService;
+import com.example.vietnamesepuzzle.service.SolveMode;
+import com.example.vietnamesepuzzle.service.SolveProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class SolveJobServiceTest {
+
+    @Mock
+    private PuzzleSolveService puzzleSolveService;
+
+    private SolveJobService solveJobService;
+
+    @BeforeEach
+    void setUp() {
+        // One worker and one queue slot; events every 20 ms, at most 2 solutions per event
+        solveJobService = new SolveJobService(puzzleSolveService, 1, 1, 10, 20, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        solveJobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_ShouldRunJobAndExposeResult() throws InterruptedException {
+        given(puzzleSolveService.generateSolutions(eq(SolveMode.OPTIMIZED), any(SolveProgress.class)))
+                .willReturn(Map.of("firstSolution", "174365829"));
+
+        SolveJob job = solveJobService.submit(SolveMode.OPTIMIZED);
+        awaitFinished(job);
+
+        assertEquals(SolveJob.Status.COMPLETED, job.getStatus());
+        assertEquals(Map.of("firstSolution", "174365829"), job.toMap().get("result"));
+        assertSame(job, solveJobService.getJob(job.getId()));
+    }
+
+    @Test
+    void testSubmit_QueueFull_ShouldReject() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        given(puzzleSolveService.generateSolutions(any(), any(SolveProgress.class))).willAnswer(inv -> {
+            started.countDown();
+            SolveProgress progress = inv.getArgument(1);
+            while (!progress.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            throw new CancellationException();
+        });
+
+        SolveJob running = solveJobService.submit(SolveMode.NAIVE);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        SolveJob queued = solveJobService.submit(SolveMode.NAIVE);
+
+        assertThrows(RejectedExecutionException.class, () -> solveJobService.submit(SolveMode.NAIVE));
+
+        // Cancelling the queued job means it never runs; cancelling the running one stops the solve
+        solveJobService.cancel(queued.getId());
+        assertEquals(SolveJob.Status.CANCELLED, queued.getStatus());
+        solveJobService.cancel(running.getId());
+        awaitFinished(running);
+        assertEquals(SolveJob.Status.CANCELLED, running.getStatus());
+    }
+
+    @Test
+    void testSubmit_FailingSolve_ShouldMarkJobFailed() throws InterruptedException {
+        given(puzzleSolveService.generateSolutions(any(), any(SolveProgress.class)))
+                .willThrow(new IllegalStateException("boom"));
+
+        SolveJob job = solveJobService.submit(SolveMode.OPTIMIZED);
+        awaitFinished(job);
+
+        assertEquals(SolveJob.Status.FAILED, job.getStatus());
+        assertEquals("boom", job.toMap().get("error"));
+    }
+
+    @Test
+    void testEvents_ShouldStreamProgressAndBatchedSolutionsUntilDone() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        given(puzzleSolveService.generateSolutions(any(), any(SolveProgress.class))).willAnswer(inv -> {
+            SolveProgress progress = inv.getArgument(1);
+            progress.incrementExplored();
+            progress.addSolution("174365829");
+            release.await(5, TimeUnit.SECONDS);
+            progress.addSolution("194362578");
+            progress.addSolution("215384769");
+            return Map.of("firstSolution", "174365829");
+        });
+
+        SolveJob job = solveJobService.submit(SolveMode.NAIVE);
+        StepVerifier.create(solveJobService.events(job).filter(event -> !event.name().equals("progress")))
+                .expectNext(new SolveJobEvent("solutions", Map.of("jobId", job.getId(), "solutions", List.of("174365829"))))
+                .then(release::countDown)
+                // Solutions left when the job finishes are flushed in batches of at most 2
+                .expectNext(new SolveJobEvent("solutions", Map.of("jobId", job.getId(),
+                        "solutions", List.of("194362578", "215384769"))))
+                .assertNext(event -> {
+                    assertEquals("done", event.name());
+                    assertEquals(SolveJob.Status.COMPLETED, event.data().get("status"));
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(3, job.getProgress().getSolutionsFound());
+    }
+
+    @Test
+    void testSolutionCursors_ShouldEachSeeEverySolutionOnce() {
+        SolveProgress progress = new SolveProgress();
+        SolveProgress.SolutionCursor early = progress.solutionCursor();
+        progress.addSolution("174365829");
+        progress.addSolution("194362578");
+
+        assertEquals(List.of("174365829"), early.poll(1));
+        progress.addSolution("215384769");
+        assertEquals(List.of("194362578", "215384769"), early.poll(10));
+        assertEquals(List.of(), early.poll(10));
+        assertEquals(List.of("174365829", "194362578", "215384769"), progress.solutionCursor().poll(10));
+    }
+
+    @Test
+    void testCancel_UnknownJob_ShouldReturnNull() {
+        assertNull(solveJobService.cancel(42L));
+    }
+
+    @Test
+    void testSolveModeFromParameter_ShouldIgnoreCaseAndRejectUnknownModes() {
+        assertEquals(SolveMode.BRANCH_AND_BOUND, SolveMode.fromParameter("Branch_And_Bound"));
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> SolveMode.fromParameter("bogus"));
+        assertEquals("Unknown solve mode: bogus. Valid modes are optimized, branch_and_bound, naive.",
+                ex.getMessage());
+    }
+
+    private static void awaitFinished(SolveJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.vietnamesepuzzle;
+
+import com.example.vietnamesepuzzle.equation.PuzzleEquation;
+import com.example.vietnamesepuzzle.service.AttemptUtils;
+import com.example.vietnamesepuzzle.service.ParallelSolveService;
+import com.example.vietnamesepuzzle.service.PermutationRank;
+import com.example.vietnamesepuzzle.service.PuzzleSolveService;
+import com.example.vietnamesepuzzle.service.SolutionSnapshot;
+import com.example.vietnamesepuzzle.service.VerdictIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PuzzleEquation equation;
+    private ParallelSolveService parallelSolveService;
+    private PuzzleSolveService puzzleSolveService;
+    private VerdictIndex verdictIndex;
+
+    @BeforeEach
+    void setUp() {
+        AttemptUtils attemptUtils = new AttemptUtils();
+        equation = PuzzleEquation.compile(PuzzleEquation.VIETNAMESE_PUZZLE);
+        parallelSolveService = new ParallelSolveService(attemptUtils, equation, 2, 0);
+        puzzleSolveService = new PuzzleSolveService(null, attemptUtils, null, equation, null, null);
+        verdictIndex = new VerdictIndex(parallelSolveService, puzzleSolveService,
+                new SolutionSnapshot(equation, ""), true, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelSolveService.shutdown();
+    }
+
+    @Test
+    void testBuild_ShouldAgreeWithEvaluateExpressionForAllInputs() {
+        // build() throws if any of the 9! bits disagrees with evaluateExpression
+        assertDoesNotThrow(() -> verdictIndex.build());
+        assertEquals(84, verdictIndex.getSolutionCount());
+    }
+
+    @Test
+    void testIsCorrect_KnownInputs() {
+        verdictIndex.build();
+
+        assertTrue(verdictIndex.isCorrect(PermutationRank.rank("174365829")));
+        assertFalse(verdictIndex.isCorrect(PermutationRank.rank("123456789")));
+        assertThrows(IllegalArgumentException.class, () -> verdictIndex.isCorrect(-1));
+    }
+
+    @Test
+    void testBuild_WithSnapshot_ShouldWarmStartWithoutSolving() {
+        String path = tempDir.resolve("snapshot.bin").toString();
+        VerdictIndex solved = new VerdictIndex(parallelSolveService, puzzleSolveService,
+                new SolutionSnapshot(equation, path), true, 2000);
+        solved.build();
+        assertFalse(solved.isFromSnapshot());
+
+        // No solver: building must not need one
+        VerdictIndex restarted = new VerdictIndex(null, null, new SolutionSnapshot(equation, path), true, 2000);
+        restarted.build();
+
+        assertTrue(restarted.isFromSnapshot());
+        assertEquals(solved.getSolutions(), restarted.getSolutions());
+        for (int rank = 0; rank < PermutationRank.PERMUTATION_COUNT; rank++) {
+            assertEquals(solved.isCorrect(rank), restarted.isCorrect(rank));
+        }
+    }
+}